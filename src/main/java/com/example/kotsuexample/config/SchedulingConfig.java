@@ -0,0 +1,23 @@
+package com.example.kotsuexample.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// @Scheduled 작업 전용 스케줄러
+// 기본 스케줄러는 스레드 1개라 읽음 flush, 보정(repair/reconcile), 스냅샷이 길어지면 접속 하트비트가 밀려 ttl 을 넘김
+// 이름이 taskScheduler 인 빈을 @Scheduled 가 우선 사용 (@EnableWebSocket 의 SockJS 스케줄러와 구분)
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${chat.scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("chat-scheduled-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+}
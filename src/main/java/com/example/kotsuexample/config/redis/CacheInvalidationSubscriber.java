@@ -0,0 +1,41 @@
+package com.example.kotsuexample.config.redis;
+
+import com.example.kotsuexample.service.ChatRoomMetadataCache;
+import com.example.kotsuexample.service.ReadWatermarkService;
+import com.example.kotsuexample.service.UserProfileCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+// 노드별 로컬 캐시 무효화 메시지 처리
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationSubscriber implements MessageListener {
+
+    private final ChatRoomMetadataCache chatRoomMetadataCache;
+    private final ReadWatermarkService readWatermarkService;
+    private final UserProfileCache userProfileCache;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+
+        try {
+            if (ChatRoomMetadataCache.INVALIDATION_CHANNEL.equals(channel)) {
+                Integer chatRoomId = Integer.valueOf(body);
+                chatRoomMetadataCache.evictLocal(chatRoomId);
+                readWatermarkService.evict(chatRoomId);
+            } else if (UserProfileCache.INVALIDATION_CHANNEL.equals(channel)) {
+                userProfileCache.evictLocal(Integer.valueOf(body));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("잘못된 캐시 무효화 메시지 channel={}, body={}", channel, body);
+        }
+    }
+}
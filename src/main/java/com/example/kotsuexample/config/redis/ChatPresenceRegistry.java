@@ -0,0 +1,29 @@
+package com.example.kotsuexample.config.redis;
+
+import com.example.kotsuexample.config.websocket.ChatSessionManager;
+import com.example.kotsuexample.config.websocket.SessionChannel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// 클러스터 전체 기준 1:1 채팅방(/ws/chat) 접속 유저 - 어느 노드에 접속해 있든 오프라인 알림을 보내지 않기 위해
+// chat:online:{roomId} - 채팅 소켓 연결/종료와 주기적 하트비트로 갱신
+// (chat:presence:{roomId} 는 클라이언트가 보내는 "보고 있음" 신호라 별도)
+@Component
+public class ChatPresenceRegistry extends SessionPresenceRegistry {
+
+    public ChatPresenceRegistry(StringRedisTemplate redisTemplate,
+                                ChatSessionManager sessionManager,
+                                @Value("${chat.online.ttl-ms:30000}") long ttlMs,
+                                @Value("${chat.online.cache-ms:1000}") long cacheMs,
+                                @Value("${chat.online.cache-max-rooms:10000}") int cacheMaxRooms) {
+        super("chat:online:", SessionChannel.CHAT, redisTemplate, sessionManager, ttlMs, cacheMs, cacheMaxRooms);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${chat.online.heartbeat-ms:10000}")
+    public void refreshLocal() {
+        super.refreshLocal();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.kotsuexample.config.redis;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Range.Bound;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// 채팅방별 최근 메시지를 Redis Stream 에 길이 제한을 두고 보관 (chat:stream:{roomId})
+// Pub/Sub 은 그대로 실시간 전파에 쓰고, 재접속한 클라이언트가 놓친 메시지만 여기서 다시 받아감
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatStreamLog {
+
+    private static final String KEY_PREFIX = "chat:stream:";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_PAYLOAD = "payload";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${chat.stream.enabled:false}")
+    private boolean enabled;
+
+    // 방별로 보관하는 최대 메시지 수 (대략적인 trim)
+    @Value("${chat.stream.max-len:1000}")
+    private long maxLen;
+
+    // readAfter 가 XREVRANGE 한 번에 읽는 개수
+    @Value("${chat.stream.read-batch:100}")
+    private int readBatch;
+
+    // id 발급과 XADD 사이에 순서가 뒤바뀔 수 있는 시간 - 받은 마지막 메시지보다 이만큼 앞까지만 더 봄
+    @Value("${chat.stream.reorder-window-ms:5000}")
+    private long reorderWindowMs;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void append(String roomId, Integer messageId, byte[] payload) {
+        if (!enabled || messageId == null) return;
+
+        String key = KEY_PREFIX + roomId;
+        try {
+            // XADD ... MAXLEN ~ maxLen : 추가와 trim 을 한 번에
+            redisTemplate.opsForStream().add(StreamRecords.string(Map.of(
+                    FIELD_ID, String.valueOf(messageId),
+                    FIELD_PAYLOAD, new String(payload, StandardCharsets.UTF_8)
+            )).withStreamKey(key), XAddOptions.maxlen(maxLen).approximateTrimming(true));
+        } catch (Exception e) {
+            // 스트림은 재접속 보정용이므로 실패해도 실시간 전파는 계속
+            log.warn("채팅 스트림 기록 실패 roomId={}: {}", roomId, e.getMessage());
+        }
+    }
+
+    // lastMessageId 이후 메시지들을 id 순으로 반환
+    // 스트림에 남은 범위로 공백을 다 메울 수 없으면 Optional.empty() (클라이언트가 DB 에서 after 커서로 조회)
+    // 최신 쪽부터 read-batch 개씩 읽다가 받은 메시지를 만나고 reorder-window-ms 만큼 더 지나면 멈춤
+    // (보통 재접속 공백은 짧아서 한 번에 끝남, 보관 구간 전체를 매번 읽지 않음)
+    public Optional<List<String>> readAfter(String roomId, int lastMessageId) {
+        if (!enabled) return Optional.empty();
+
+        String key = KEY_PREFIX + roomId;
+        // id 는 노드마다 발급 후 XADD 하므로 스트림 순서와 id 순서가 다를 수 있음
+        // → 받은 메시지를 처음 만난 뒤에도 그보다 조금 앞에 XADD 된 것까지 id 로 걸러냄
+        List<Missed> missed = new ArrayList<>();
+        long coveredAt = -1;
+        Range<String> range = Range.unbounded();
+        while (true) {
+            List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().reverseRange(
+                    key, range, Limit.limit().count(readBatch));
+            if (records == null || records.isEmpty()) break;
+
+            for (MapRecord<String, Object, Object> record : records) {
+                long addedAt = record.getId().getTimestamp();
+                if (coveredAt >= 0 && addedAt < coveredAt - reorderWindowMs) {
+                    return Optional.of(sorted(missed));
+                }
+                Map<Object, Object> fields = record.getValue();
+                int id = Integer.parseInt((String) fields.get(FIELD_ID));
+                if (id <= lastMessageId) {
+                    if (coveredAt < 0) coveredAt = addedAt;
+                } else {
+                    missed.add(new Missed(id, (String) fields.get(FIELD_PAYLOAD)));
+                }
+            }
+            if (records.size() < readBatch) break;
+            range = Range.leftUnbounded(Bound.exclusive(records.get(records.size() - 1).getId().getValue()));
+        }
+        // 클라이언트가 받은 마지막 메시지가 구간 안에 없으면 그보다 앞이 trim 됐을 수 있음
+        if (coveredAt < 0) return Optional.empty();
+        return Optional.of(sorted(missed));
+    }
+
+    private static List<String> sorted(List<Missed> missed) {
+        missed.sort(Comparator.comparingInt(Missed::id));
+        return missed.stream().map(Missed::payload).toList();
+    }
+
+    private record Missed(int id, String payload) {
+    }
+}
@@ -1,18 +1,23 @@
 package com.example.kotsuexample.config.redis;
 
+import com.example.kotsuexample.service.ChatRoomMetadataCache;
+import com.example.kotsuexample.service.UserProfileCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.List;
+
 @Configuration
 @RequiredArgsConstructor
 public class RedisConfig {
@@ -43,13 +48,17 @@ public class RedisConfig {
     @Bean
     public RedisMessageListenerContainer redisMessageListenerContainer(
             RedisConnectionFactory connectionFactory,
-            RedisSubscriber redisSubscriber,
-            VideoSignalSubscriber videoSignalSubscriber
+            CacheInvalidationSubscriber cacheInvalidationSubscriber
     ) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.addMessageListener(redisSubscriber, new PatternTopic("chatroom:*"));
-        container.addMessageListener(videoSignalSubscriber, new PatternTopic("signal:*"));
+        // 수신 쓰레드에서 바로 stripe 큐에 넣음 → 도착 순서 그대로 방별 큐에 들어감
+        container.setTaskExecutor(new SyncTaskExecutor());
+        // 방 채널(chatroom:{id}, signal:{id})은 RoomSubscriptionManager 가 세션 유무에 따라 동적으로 구독
+        container.addMessageListener(cacheInvalidationSubscriber, List.of(
+                new ChannelTopic(ChatRoomMetadataCache.INVALIDATION_CHANNEL),
+                new ChannelTopic(UserProfileCache.INVALIDATION_CHANNEL)
+        ));
         return container;
     }
 }
@@ -1,9 +1,12 @@
 package com.example.kotsuexample.config.redis;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+
 @Component
 @RequiredArgsConstructor
 public class RedisPublisher {
@@ -13,4 +16,10 @@ public class RedisPublisher {
     public void publish(String topic, String message) {
         redisTemplate.convertAndSend(topic, message);
     }
+
+    // 이미 UTF-8 로 직렬화된 페이로드를 그대로 발행 (String 을 거쳐 다시 인코딩하지 않음)
+    public void publish(String topic, byte[] message) {
+        redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.publish(topic.getBytes(StandardCharsets.UTF_8), message));
+    }
 }
@@ -0,0 +1,152 @@
+package com.example.kotsuexample.config.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Redis 메시지를 채팅방 id 로 해시해서 stripe(단일 쓰레드)에 배정
+// 같은 방의 메시지는 항상 같은 stripe 에서 순서대로, 다른 방은 병렬로 처리됨
+// stripe 큐가 가득 차면 구독 쓰레드가 자리가 날 때까지 최대 offer-timeout-ms 기다림 (배압)
+// 그래도 자리가 없으면 버리고 chat.redis.dispatch.dropped 로 셈 - 버려진 메시지는 접속 중인 클라이언트에
+// 다시 전달되지 않으므로 이 지표가 0 이 아니면 stripe/큐 크기를 늘려야 함
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomOrderedDispatcher {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.redis.dispatch.stripes:16}")
+    private int stripeCount;
+
+    @Value("${chat.redis.dispatch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // 큐가 가득 찼을 때 구독 쓰레드가 기다리는 최대 시간 (그동안 다른 방 메시지 수신도 같이 멈춤)
+    @Value("${chat.redis.dispatch.offer-timeout-ms:1000}")
+    private long offerTimeoutMs;
+
+    private ThreadPoolExecutor[] stripes;
+    private Timer[] lagTimers;
+    private Counter blockedCounter;
+    private Counter droppedCounter;
+    // 과부하 때 로그가 쏟아지지 않도록 경고는 1초에 한 번만
+    private final AtomicLong lastDropWarnAt = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        stripes = new ThreadPoolExecutor[stripeCount];
+        lagTimers = new Timer[stripeCount];
+        blockedCounter = Counter.builder("chat.redis.dispatch.blocked")
+                .description("stripe 큐가 가득 차서 구독 쓰레드가 기다린 횟수")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("chat.redis.dispatch.dropped")
+                .description("offer-timeout-ms 동안 기다려도 자리가 없어 버려진 Redis 메시지 수")
+                .register(meterRegistry);
+        for (int i = 0; i < stripeCount; i++) {
+            String name = "redis-dispatch-" + i;
+            BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue, r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            }, this::waitForSpace);
+
+            String stripe = String.valueOf(i);
+            Gauge.builder("chat.redis.dispatch.queue.depth", queue, BlockingQueue::size)
+                    .description("stripe 별 처리 대기 중인 Redis 메시지 수")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+            lagTimers[i] = Timer.builder("chat.redis.dispatch.lag")
+                    .description("Redis 메시지 수신부터 처리 시작까지 대기 시간")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+        }
+    }
+
+    // 채널 이름("chatroom:{roomId}", "signal:{roomId}" ...)의 roomId 기준으로 순서를 보장하는 리스너로 감쌈
+    public MessageListener ordered(MessageListener delegate) {
+        return (message, pattern) -> {
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            int index = stripeOf(roomKey(channel));
+            long enqueuedAt = System.nanoTime();
+
+            try {
+                stripes[index].execute(() -> {
+                    lagTimers[index].record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                    try {
+                        delegate.onMessage(message, pattern);
+                    } catch (Exception e) {
+                        log.error("Redis 메시지 처리 실패 channel={}: {}", channel, e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                dropped(channel, index);
+            }
+        };
+    }
+
+    // 큐가 가득 차면 바로 거절하지 않고 잠깐 기다렸다가 넣음 (그래도 안 되면 RejectedExecutionException)
+    private void waitForSpace(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("dispatcher 종료됨");
+        }
+        blockedCounter.increment();
+        try {
+            if (executor.getQueue().offer(task, offerTimeoutMs, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new RejectedExecutionException("stripe 큐가 가득 참");
+    }
+
+    private void dropped(String channel, int index) {
+        droppedCounter.increment();
+        long now = System.currentTimeMillis();
+        long last = lastDropWarnAt.get();
+        if (now - last >= 1000 && lastDropWarnAt.compareAndSet(last, now)) {
+            log.warn("Redis 메시지 처리 큐가 가득 차서 버림 channel={} stripe={} (누적 {}건)",
+                    channel, index, (long) droppedCounter.count());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+        for (ThreadPoolExecutor stripe : stripes) {
+            try {
+                stripe.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private int stripeOf(String roomKey) {
+        return Math.floorMod(roomKey.hashCode(), stripeCount);
+    }
+
+    // "type:roomId[:...]" 에서 roomId 만 사용 (형식이 다르면 채널 전체)
+    private static String roomKey(String channel) {
+        String[] tokens = channel.split(":");
+        return tokens.length > 1 ? tokens[1] : channel;
+    }
+}
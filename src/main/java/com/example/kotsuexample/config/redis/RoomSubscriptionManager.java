@@ -0,0 +1,143 @@
+package com.example.kotsuexample.config.redis;
+
+import com.example.kotsuexample.config.websocket.ChatSessionManager;
+import com.example.kotsuexample.config.websocket.RoomSessionsChangedEvent;
+import com.example.kotsuexample.config.websocket.SessionChannel;
+import com.example.kotsuexample.service.ReadWatermarkService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+// 이 노드에 세션이 있는 방의 채널만 구독 ("chatroom:*" / "signal:*" 패턴 구독 대신)
+// → 노드가 받는 Pub/Sub 트래픽이 전체 트래픽이 아니라 이 노드가 맡은 방 수에 비례
+// 채팅 소켓(/ws/chat, /ws/study)만 있으면 chatroom 채널만, 시그널 소켓만 있으면 signal 채널만 구독
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomSubscriptionManager {
+
+    private final RedisMessageListenerContainer container;
+    private final RoomOrderedDispatcher roomOrderedDispatcher;
+    private final RedisSubscriber redisSubscriber;
+    private final VideoSignalSubscriber videoSignalSubscriber;
+    private final ChatSessionManager sessionManager;
+    private final ReadWatermarkService readWatermarkService;
+
+    // 방 채널별 구독 상태
+    private final Map<String, ChannelState> subscribedRooms = new ConcurrentHashMap<>();
+    // 유저별 시그널 채널 ("signal:{roomId}:{userId}") 구독 상태
+    private final Map<String, ChannelState> subscribedUserSignals = new ConcurrentHashMap<>();
+
+    // 구독/해지 때 같은 인스턴스를 써야 하므로 한 번만 감쌈
+    private MessageListener chatListener;
+    private MessageListener signalListener;
+
+    @PostConstruct
+    public void init() {
+        chatListener = roomOrderedDispatcher.ordered(redisSubscriber);
+        signalListener = roomOrderedDispatcher.ordered(videoSignalSubscriber);
+    }
+
+    @EventListener
+    public void onRoomSessionsChanged(RoomSessionsChangedEvent event) {
+        if (event.getChannel() == SessionChannel.SIGNAL) {
+            reconcileSignal(event.getRoomId());
+        } else {
+            reconcileChat(event.getRoomId());
+        }
+    }
+
+    public boolean isSubscribed(String roomId) {
+        ChannelState state = subscribedRooms.get(chatChannel(roomId));
+        return state != null && state.subscribed;
+    }
+
+    // 이벤트 순서가 뒤바뀌어도 (입장/퇴장이 동시에 일어나도) 현재 세션 상태 기준으로 맞춤
+    private void reconcileChat(String roomId) {
+        boolean unsubscribed = reconcile(subscribedRooms, chatChannel(roomId), chatListener, () ->
+                !sessionManager.getSessions(SessionChannel.CHAT, roomId).isEmpty()
+                        || !sessionManager.getSessions(SessionChannel.STUDY, roomId).isEmpty());
+        if (unsubscribed) {
+            // 구독을 끊으면 다른 노드의 읽음 이벤트를 못 받으므로 로컬 워터마크도 버림
+            evictWatermarks(roomId);
+        }
+    }
+
+    private void reconcileSignal(String roomId) {
+        reconcile(subscribedRooms, signalChannel(roomId), signalListener, () ->
+                !sessionManager.getSessions(SessionChannel.SIGNAL, roomId).isEmpty());
+    }
+
+    // 이 노드에 그 유저의 세션이 남아 있는 동안만 유저 시그널 채널 구독
+    public void reconcileUserSignal(String roomId, Integer userId) {
+        if (userId == null) return;
+        reconcile(subscribedUserSignals, signalChannel(roomId) + ":" + userId, signalListener, () ->
+                sessionManager.isUserConnected(SessionChannel.SIGNAL, roomId, userId));
+    }
+
+    // 구독을 해지했으면 true
+    // 맵에서는 채널 상태 객체만 꺼내고 (compute 안에서 Redis 구독 명령을 보내면 같은 bin 의 다른 채널까지 막힘)
+    // 구독/해지는 채널별 락 안에서 - 같은 채널의 입장/퇴장만 서로 기다림
+    private boolean reconcile(Map<String, ChannelState> states, String channel,
+                              MessageListener listener, BooleanSupplier hasSessions) {
+        while (true) {
+            ChannelState state = states.computeIfAbsent(channel, k -> new ChannelState());
+            synchronized (state) {
+                // 락을 기다리는 사이 다른 스레드가 해지하고 맵에서 뺀 상태 → 새 상태 객체로 다시
+                if (state.retired) continue;
+
+                boolean active = hasSessions.getAsBoolean();
+                boolean unsubscribed = false;
+                try {
+                    if (active && !state.subscribed) {
+                        container.addMessageListener(listener, new ChannelTopic(channel));
+                        state.subscribed = true;
+                    } else if (!active && state.subscribed) {
+                        container.removeMessageListener(listener, new ChannelTopic(channel));
+                        state.subscribed = false;
+                        unsubscribed = true;
+                    }
+                } catch (Exception e) {
+                    log.error("채널 구독 변경 실패 channel={}: {}", channel, e.getMessage());
+                }
+                if (!state.subscribed) {
+                    state.retired = true;
+                    states.remove(channel, state);
+                }
+                return unsubscribed;
+            }
+        }
+    }
+
+    private void evictWatermarks(String roomId) {
+        try {
+            readWatermarkService.evict(Integer.valueOf(roomId));
+        } catch (NumberFormatException ignored) {
+            // 숫자가 아닌 방 id 는 워터마크가 없음
+        }
+    }
+
+    private static String chatChannel(String roomId) {
+        return "chatroom:" + roomId;
+    }
+
+    private static String signalChannel(String roomId) {
+        return "signal:" + roomId;
+    }
+
+    private static final class ChannelState {
+        // 쓰기는 이 객체의 락 안에서만, isSubscribed 는 락 없이 읽음
+        private volatile boolean subscribed;
+        // 맵에서 빠진 상태 객체 (더 이상 쓰지 않음)
+        private boolean retired;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.kotsuexample.config.redis;
+
+import com.example.kotsuexample.config.websocket.ChatSessionManager;
+import com.example.kotsuexample.config.websocket.SessionChannel;
+import com.example.kotsuexample.service.SseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// 클러스터 전체 기준 방별 접속 유저 (노드 로컬 세션만 보는 ChatSessionManager 대신)
+// {keyPrefix}{roomId} ZSET - member = "{userId}:{nodeId}", score = 마지막 하트비트 시각(ms)
+// 노드별로 따로 두므로 한 노드에서 나가도 다른 노드에 접속해 있는 같은 유저는 남음
+// 소켓 연결/종료와, 이 노드 세션들에 대한 주기적 하트비트(refreshLocal)로 갱신
+// 노드가 죽어서 하트비트가 끊기면 ttl 뒤 조회에서 빠지고 다음 쓰기 때 정리됨
+// 엔드포인트별 하위 클래스가 키/설정값과 하트비트 주기(@Scheduled)를 정함
+@Slf4j
+public abstract class SessionPresenceRegistry {
+
+    private final String keyPrefix;
+    private final SessionChannel channel;
+    private final StringRedisTemplate redisTemplate;
+    private final ChatSessionManager sessionManager;
+    private final long ttlMs;
+    // 자주 조회되는 방은 이 시간 동안 로컬 결과를 그대로 씀
+    private final long cacheMs;
+    private final int cacheMaxRooms;
+
+    // 이 노드에서 소켓이 열려 있는 방 -> 유저
+    private final Map<String, Set<Integer>> localMembers = new ConcurrentHashMap<>();
+    private final Map<String, CachedPresence> cache = new ConcurrentHashMap<>();
+
+    protected SessionPresenceRegistry(String keyPrefix, SessionChannel channel,
+                                      StringRedisTemplate redisTemplate, ChatSessionManager sessionManager,
+                                      long ttlMs, long cacheMs, int cacheMaxRooms) {
+        this.keyPrefix = keyPrefix;
+        this.channel = channel;
+        this.redisTemplate = redisTemplate;
+        this.sessionManager = sessionManager;
+        this.ttlMs = ttlMs;
+        this.cacheMs = cacheMs;
+        this.cacheMaxRooms = cacheMaxRooms;
+    }
+
+    public void join(String roomId, Integer userId) {
+        if (userId == null) return;
+        localMembers.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(userId);
+        touch(roomId, Set.of(userId));
+        cache.remove(roomId);
+    }
+
+    // 같은 유저의 다른 탭이 이 노드에 남아 있으면 유지, 이 노드의 member 만 제거
+    public void leave(String roomId, Integer userId) {
+        if (userId == null || sessionManager.isUserConnected(channel, roomId, userId)) return;
+        localMembers.computeIfPresent(roomId, (k, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+        try {
+            redisTemplate.opsForZSet().remove(key(roomId), member(userId));
+        } catch (Exception e) {
+            log.error("접속 유저 제거 실패 {}{}: {}", keyPrefix, roomId, e.getMessage());
+        }
+        cache.remove(roomId);
+    }
+
+    // 클라이언트 PING (화상방)
+    public void heartbeat(String roomId, Integer userId) {
+        if (userId == null) return;
+        touch(roomId, Set.of(userId));
+    }
+
+    public boolean exists(String roomId) {
+        return count(roomId) > 0;
+    }
+
+    public long count(String roomId) {
+        return presence(roomId).userIds().size();
+    }
+
+    public List<Integer> participants(String roomId) {
+        return presence(roomId).userIds();
+    }
+
+    public boolean isPresent(String roomId, Integer userId) {
+        return presence(roomId).userIds().contains(userId);
+    }
+
+    // 이 노드 세션들의 하트비트를 방마다 파이프라인 한 번으로 갱신
+    public void refreshLocal() {
+        for (Map.Entry<String, Set<Integer>> entry : localMembers.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                touch(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void touch(String roomId, Set<Integer> userIds) {
+        String key = key(roomId);
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (Integer userId : userIds) {
+                        operations.opsForZSet().add(key, member(userId), now);
+                    }
+                    // 하트비트가 끊긴 참가자 정리 + 아무도 갱신하지 않는 방은 키째 만료
+                    operations.opsForZSet().removeRangeByScore(key, 0, now - ttlMs);
+                    operations.expire(key, ttlMs * 2, TimeUnit.MILLISECONDS);
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.error("접속 유저 하트비트 갱신 실패 {}{}: {}", keyPrefix, roomId, e.getMessage());
+        }
+    }
+
+    private CachedPresence presence(String roomId) {
+        long now = System.currentTimeMillis();
+        CachedPresence cached = cache.get(roomId);
+        if (cached != null && cached.loadedAt() > now - cacheMs) {
+            return cached;
+        }
+
+        Set<String> members = redisTemplate.opsForZSet()
+                .rangeByScore(key(roomId), now - ttlMs, Double.POSITIVE_INFINITY);
+        List<Integer> userIds = members == null ? List.of()
+                : members.stream().map(SessionPresenceRegistry::userIdOf).distinct().toList();
+        CachedPresence loaded = new CachedPresence(userIds, now);
+
+        if (cache.size() >= cacheMaxRooms) {
+            cache.clear();
+        }
+        cache.put(roomId, loaded);
+        return loaded;
+    }
+
+    private String key(String roomId) {
+        return keyPrefix + roomId;
+    }
+
+    private static String member(Integer userId) {
+        return userId + ":" + SseService.NODE_ID;
+    }
+
+    // 노드 id 가 붙기 전 형식("{userId}")은 ttl 이 지나면 정리됨
+    private static Integer userIdOf(String member) {
+        int separator = member.indexOf(':');
+        return Integer.valueOf(separator < 0 ? member : member.substring(0, separator));
+    }
+
+    private record CachedPresence(List<Integer> userIds, long loadedAt) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.kotsuexample.config.redis;
+
+import com.example.kotsuexample.dto.SseEnvelope;
+import com.example.kotsuexample.service.SseConnectionChangedEvent;
+import com.example.kotsuexample.service.SseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 다른 노드에서 발행한 SSE 알림을 이 노드에 열린 탭으로 전달
+// 유저의 탭이 이 노드에 하나라도 열려 있는 동안만 그 유저 채널을 구독
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SseUserSubscriber implements MessageListener {
+
+    private final SseService sseService;
+    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer container;
+    private final RoomOrderedDispatcher roomOrderedDispatcher;
+
+    // 구독 중인 유저 (value 는 항상 TRUE)
+    private final Map<Integer, Boolean> subscribedUsers = new ConcurrentHashMap<>();
+
+    // 느린 SSE 연결이 Redis 리스너 쓰레드를 막지 않도록 "sse:{userId}" 의 userId 기준 stripe 에서 처리
+    private MessageListener orderedListener;
+
+    @PostConstruct
+    public void init() {
+        orderedListener = roomOrderedDispatcher.ordered(this);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        try {
+            Integer userId = Integer.valueOf(channel.split(":")[1]);
+            SseEnvelope envelope = objectMapper.readValue(message.getBody(), SseEnvelope.class);
+            if (SseService.NODE_ID.equals(envelope.getOrigin())) {
+                return; // 발행한 노드에서 이미 보냄
+            }
+            sseService.deliverLocal(userId, envelope.getType(), envelope.getData());
+        } catch (Exception e) {
+            log.error("SSE 알림 전달 실패 channel={}: {}", channel, e.getMessage());
+        }
+    }
+
+    // 이벤트 순서가 뒤바뀌어도 현재 탭 상태 기준으로 맞춤
+    @EventListener
+    public void onConnectionChanged(SseConnectionChangedEvent event) {
+        Integer userId = event.getUserId();
+        ChannelTopic topic = new ChannelTopic(SseService.channel(userId));
+        subscribedUsers.compute(userId, (k, subscribed) -> {
+            boolean active = sseService.isConnected(userId);
+            try {
+                if (active && subscribed == null) {
+                    container.addMessageListener(orderedListener, topic);
+                    return Boolean.TRUE;
+                }
+                if (!active && subscribed != null) {
+                    container.removeMessageListener(orderedListener, topic);
+                    return null;
+                }
+            } catch (Exception e) {
+                log.error("SSE 유저 채널 구독 변경 실패 userId={}: {}", userId, e.getMessage());
+            }
+            return subscribed;
+        });
+    }
+}
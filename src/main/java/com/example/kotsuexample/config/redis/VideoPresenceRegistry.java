@@ -0,0 +1,28 @@
+package com.example.kotsuexample.config.redis;
+
+import com.example.kotsuexample.config.websocket.ChatSessionManager;
+import com.example.kotsuexample.config.websocket.SessionChannel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// 클러스터 전체 화상방 참가자 (노드 로컬 세션만 보던 hasActiveSession 대신)
+// video:presence:{roomId} - 시그널 소켓 연결/종료/PING 과 주기적 하트비트로 갱신
+@Component
+public class VideoPresenceRegistry extends SessionPresenceRegistry {
+
+    public VideoPresenceRegistry(StringRedisTemplate redisTemplate,
+                                 ChatSessionManager sessionManager,
+                                 @Value("${chat.video.presence-ttl-ms:30000}") long ttlMs,
+                                 @Value("${chat.video.presence-cache-ms:1000}") long cacheMs,
+                                 @Value("${chat.video.presence-cache-max-rooms:10000}") int cacheMaxRooms) {
+        super("video:presence:", SessionChannel.SIGNAL, redisTemplate, sessionManager, ttlMs, cacheMs, cacheMaxRooms);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${chat.video.presence-heartbeat-ms:10000}")
+    public void refreshLocal() {
+        super.refreshLocal();
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.kotsuexample.config.redis;
 
+import com.example.kotsuexample.config.websocket.BroadcastFrame;
 import com.example.kotsuexample.config.websocket.ChatSessionManager;
+import com.example.kotsuexample.config.websocket.ChatWireCodec;
+import com.example.kotsuexample.config.websocket.SessionChannel;
+import com.example.kotsuexample.config.websocket.SignalFrame;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketSession;
 
 import java.nio.charset.StandardCharsets;
 
@@ -14,6 +16,7 @@ import java.nio.charset.StandardCharsets;
 public class VideoSignalSubscriber implements MessageListener {
 
     private final ChatSessionManager sessionManager;
+    private final ChatWireCodec chatWireCodec;
 
     @Override
     public void onMessage(org.springframework.data.redis.connection.Message message, byte[] pattern) {
@@ -21,22 +24,18 @@ public class VideoSignalSubscriber implements MessageListener {
         String[] tokens = channel.split(":");
         String type = tokens[0];
         String roomId = tokens[1];
-        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
 
         if (!"signal".equals(type)) return;
 
-        // payload는 OFFER/ANSWER/CANDIDATE 등 WebRTC용 JSON 그대로 브로드캐스트
-        for (WebSocketSession session : sessionManager.getSessions(roomId)) {
-            try {
-                if (session.isOpen()) {
-                    synchronized (session) {
-                        session.sendMessage(new TextMessage(payload));
-                    }
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                sessionManager.removeSession(roomId, session);
-            }
+        // payload는 OFFER/ANSWER/CANDIDATE 등 WebRTC용 JSON(또는 CBOR) 그대로, 포맷별 프레임 하나를 모든 세션이 공유
+        SignalFrame signal = SignalFrame.decode(message.getBody());
+        BroadcastFrame frame = new BroadcastFrame(signal.payload(), chatWireCodec);
+        if (tokens.length > 2) {
+            // "signal:{roomId}:{userId}" - 받을 유저의 세션에만
+            sessionManager.sendToUser(SessionChannel.SIGNAL, roomId, Integer.valueOf(tokens[2]), frame);
+            return;
         }
+        // 시그널 소켓에만 (같은 id 의 채팅방 세션에는 보내지 않음), 보낸 세션은 제외
+        sessionManager.broadcast(SessionChannel.SIGNAL, roomId, frame, signal.senderSessionId());
     }
 }
@@ -0,0 +1,28 @@
+package com.example.kotsuexample.config.s3;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "chat.attachment")
+public class AttachmentProperties {
+    // s3 또는 local (로컬 파일시스템 - 개발/테스트용)
+    private String storage = "s3";
+    // local 저장소의 기준 디렉터리
+    private String localDir = System.getProperty("java.io.tmpdir") + "/kotsu-attachments";
+    // 이만큼 모이면 파트 하나로 저장소에 올림 (S3 는 마지막 파트 외 5MB 이상)
+    private int partSize = 5 * 1024 * 1024;
+    // 업로드 하나의 최대 크기 (bytes)
+    private long maxFileSize = 50L * 1024 * 1024;
+    // 이 시간 동안 청크가 오지 않은 업로드는 중단
+    private long idleTimeoutMs = 60000;
+    // 동시에 진행할 수 있는 업로드 수 (업로드마다 파트 버퍼를 최대 2개 잡음)
+    private int maxPendingUploads = 200;
+    private int maxPendingUploadsPerUser = 3;
+    // 저장소로 파트를 올리는 쓰레드 수
+    private int uploadThreads = 4;
+}
@@ -0,0 +1,44 @@
+package com.example.kotsuexample.config.websocket;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// 브로드캐스트 한 건의 프레임
+// 포맷(JSON 텍스트 / CBOR 바이너리)별로 필요할 때 한 번만 만들어서 같은 포맷 세션들이 공유
+public class BroadcastFrame {
+
+    private final byte[] payload;
+    private final ChatWireCodec codec;
+
+    private TextMessage textFrame;
+    private byte[] cborPayload;
+
+    public BroadcastFrame(byte[] payload, ChatWireCodec codec) {
+        this.payload = payload;
+        this.codec = codec;
+    }
+
+    // 한 번의 브로드캐스트 루프(단일 쓰레드) 안에서만 사용
+    public WebSocketMessage<?> forSession(WebSocketSession session) {
+        try {
+            if (ChatWireCodec.isCbor(session)) {
+                if (cborPayload == null) {
+                    cborPayload = codec.transcode(payload, true);
+                }
+                // ByteBuffer 는 전송하면서 position 이 움직이므로 세션마다 감싸기만 새로 (바이트 배열은 공유)
+                return new BinaryMessage(cborPayload);
+            }
+            if (textFrame == null) {
+                textFrame = new TextMessage(codec.transcode(payload, false));
+            }
+            return textFrame;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.kotsuexample.config.websocket;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+// 핸드셰이크 시점에 쿼리스트링(roomId, userId)을 한 번만 파싱해서 세션 attribute 로 저장
+// ex. wss://.../ws/chat?roomId=123&userId=5(&lastMessageId=987)
+@Component
+public class ChatHandshakeInterceptor implements HandshakeInterceptor {
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(request.getURI())
+                .build()
+                .getQueryParams();
+
+        String roomId = params.getFirst(ChatSessionManager.ROOM_ID_ATTR);
+        if (roomId == null || roomId.isBlank()) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+        attributes.put(ChatSessionManager.ROOM_ID_ATTR, roomId);
+
+        String userId = params.getFirst(ChatSessionManager.USER_ID_ATTR);
+        if (userId != null) {
+            try {
+                attributes.put(ChatSessionManager.USER_ID_ATTR, Integer.valueOf(userId));
+            } catch (NumberFormatException e) {
+                response.setStatusCode(HttpStatus.BAD_REQUEST);
+                return false;
+            }
+        }
+
+        // 재접속이면 마지막으로 받은 메시지 id 이후만 다시 보내줌 (ChatReplayer)
+        String lastMessageId = params.getFirst(ChatSessionManager.LAST_MESSAGE_ID_ATTR);
+        if (lastMessageId != null) {
+            try {
+                attributes.put(ChatSessionManager.LAST_MESSAGE_ID_ATTR, Integer.valueOf(lastMessageId));
+            } catch (NumberFormatException e) {
+                response.setStatusCode(HttpStatus.BAD_REQUEST);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
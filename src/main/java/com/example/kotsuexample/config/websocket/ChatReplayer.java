@@ -0,0 +1,54 @@
+package com.example.kotsuexample.config.websocket;
+
+import com.example.kotsuexample.config.redis.ChatStreamLog;
+import com.example.kotsuexample.dto.GroupChatMessageDTO;
+import com.example.kotsuexample.entity.enums.MessageType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+// 재접속한 세션에 끊겨 있던 동안의 메시지만 다시 보내줌 (전체 내역을 DB 에서 다시 읽지 않도록)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatReplayer {
+
+    private final ChatStreamLog chatStreamLog;
+    private final ChatSessionManager sessionManager;
+    private final ChatWireCodec chatWireCodec;
+
+    // 세션 등록 이후에 호출 → 실시간 메시지와 겹칠 수 있으므로 클라이언트는 id 로 중복 제거
+    public void replayMissed(WebSocketSession session) {
+        Integer lastMessageId = sessionManager.getLastMessageId(session);
+        if (lastMessageId == null || !chatStreamLog.isEnabled()) return;
+
+        String roomId = sessionManager.getRoomId(session);
+        try {
+            Optional<List<String>> missed = chatStreamLog.readAfter(roomId, lastMessageId);
+            if (missed.isPresent()) {
+                for (String payload : missed.get()) {
+                    // 스트림은 JSON 으로 보관 → CBOR 세션이면 변환해서 전송
+                    BroadcastFrame frame = new BroadcastFrame(payload.getBytes(StandardCharsets.UTF_8), chatWireCodec);
+                    sessionManager.sendTo(session, frame.forSession(session));
+                }
+                return;
+            }
+
+            // 스트림에 남은 범위보다 오래 끊겨 있었음 → 클라이언트가 after 커서로 DB 조회
+            GroupChatMessageDTO resync = GroupChatMessageDTO.builder()
+                    .messageType(MessageType.RESYNC)
+                    .chatRoomId(Integer.valueOf(roomId))
+                    .messageId(lastMessageId)
+                    .build();
+            byte[] payload = chatWireCodec.write(resync, ChatWireCodec.isCbor(session));
+            sessionManager.sendTo(session, new BroadcastFrame(payload, chatWireCodec).forSession(session));
+        } catch (Exception e) {
+            log.error("놓친 메시지 재전송 실패 roomId={}, sessionId={}", roomId, session.getId(), e);
+        }
+    }
+}
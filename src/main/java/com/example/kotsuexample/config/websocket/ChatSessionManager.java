@@ -1,59 +1,190 @@
 package com.example.kotsuexample.config.websocket;
 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+@Slf4j
 @Component
+@RequiredArgsConstructor
 public class ChatSessionManager {
 
-    private final Map<String, Set<WebSocketSession>> sessionMap = new ConcurrentHashMap<>();
+    // ChatHandshakeInterceptor 가 핸드셰이크 때 넣어두는 attribute 키
+    public static final String ROOM_ID_ATTR = "roomId";
+    public static final String USER_ID_ATTR = "userId";
+    // 재접속 시 클라이언트가 마지막으로 받은 메시지 id (선택)
+    public static final String LAST_MESSAGE_ID_ATTR = "lastMessageId";
+    // 전송 큐가 붙은 세션 (원본 세션으로 제거 요청이 와도 같은 객체를 찾기 위해 보관)
+    private static final String OUTBOUND_ATTR = "outboundSession";
 
-    public void addSession(String roomId, WebSocketSession session) {
-        sessionMap.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(session);
+    private final OutboundSessionFactory outboundSessionFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // (엔드포인트, roomId) 별로 따로 보관 → 채팅 프레임이 시그널 소켓으로, SDP 가 채팅 소켓으로 가지 않음
+    private final Map<RoomKey, Set<WebSocketSession>> sessionMap = new ConcurrentHashMap<>();
+    // (엔드포인트, roomId) -> userId -> 세션들 (한 유저가 여러 탭으로 접속 가능)
+    private final Map<RoomKey, Map<Integer, Set<WebSocketSession>>> userSessionMap = new ConcurrentHashMap<>();
+
+    // 등록되는 세션은 전송 큐가 붙은 세션으로 감싸서 보관 → 브로드캐스트는 큐에 넣기만 하고 바로 반환
+    public void addSession(SessionChannel channel, String roomId, WebSocketSession rawSession) {
+        WebSocketSession session = outbound(rawSession);
+        RoomKey key = new RoomKey(channel, roomId);
+        AtomicBoolean firstSession = new AtomicBoolean(false);
+        sessionMap.compute(key, (k, sessions) -> {
+            Set<WebSocketSession> set = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            firstSession.set(set.isEmpty());
+            set.add(session);
+            return set;
+        });
+
+        Integer userId = getUserId(session);
+        if (userId != null) {
+            userSessionMap.compute(key, (k, users) -> {
+                Map<Integer, Set<WebSocketSession>> map = users != null ? users : new ConcurrentHashMap<>();
+                map.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(session);
+                return map;
+            });
+        }
+
+        // 이 노드에 방의 첫 세션 → Redis 채널 구독 시작
+        if (firstSession.get()) {
+            eventPublisher.publishEvent(new RoomSessionsChangedEvent(channel, roomId, true));
+        }
+    }
+
+    public void removeSession(SessionChannel channel, String roomId, WebSocketSession rawSession) {
+        WebSocketSession session = outbound(rawSession);
+        RoomKey key = new RoomKey(channel, roomId);
+        AtomicBoolean lastSession = new AtomicBoolean(false);
+        sessionMap.computeIfPresent(key, (k, sessions) -> {
+            boolean removed = sessions.remove(session);
+            lastSession.set(removed && sessions.isEmpty());
+            return sessions.isEmpty() ? null : sessions;
+        });
+
+        Integer userId = getUserId(session);
+        if (userId != null) {
+            userSessionMap.computeIfPresent(key, (k, users) -> {
+                users.computeIfPresent(userId, (id, sessions) -> {
+                    sessions.remove(session);
+                    return sessions.isEmpty() ? null : sessions;
+                });
+                return users.isEmpty() ? null : users;
+            });
+        }
+
+        // 마지막 세션이 나감 → 이 노드는 더 이상 방의 메시지를 받을 필요 없음
+        if (lastSession.get()) {
+            eventPublisher.publishEvent(new RoomSessionsChangedEvent(channel, roomId, false));
+        }
+    }
+
+    public Set<WebSocketSession> getSessions(SessionChannel channel, String roomId) {
+        return sessionMap.getOrDefault(new RoomKey(channel, roomId), Collections.emptySet());
+    }
+
+    // 한 번 만든 프레임(불변)을 방의 모든 세션이 공유해서 전송 → 세션마다 페이로드를 다시 만들지 않음
+    // (JSON/CBOR 세션이 섞여 있으면 포맷별로 한 번씩만 인코딩)
+    public void broadcast(SessionChannel channel, String roomId, BroadcastFrame frame) {
+        broadcast(channel, roomId, frame, null);
     }
 
-    public void removeSession(String roomId, WebSocketSession session) {
-        Set<WebSocketSession> sessions = sessionMap.get(roomId);
-        if (sessions != null) {
-            sessions.remove(session);
-            if (sessions.isEmpty()) sessionMap.remove(roomId);
+    // excludedSessionId 세션에는 보내지 않음 (보낸 사람에게 되돌아가지 않도록)
+    public void broadcast(SessionChannel channel, String roomId, BroadcastFrame frame, String excludedSessionId) {
+        for (WebSocketSession session : getSessions(channel, roomId)) {
+            if (!session.isOpen() || (excludedSessionId != null && excludedSessionId.equals(session.getId()))) continue;
+
+            WebSocketMessage<?> message;
+            try {
+                message = frame.forSession(session);
+            } catch (UncheckedIOException e) {
+                // 페이로드 자체가 잘못된 경우 - 세션 문제는 아님
+                log.error("브로드캐스트 프레임 변환 실패 roomId={}", roomId, e);
+                return;
+            }
+
+            try {
+                // 세션별 전송 큐에 넣기만 함 (느린 클라이언트가 리스너 쓰레드를 막지 않음)
+                session.sendMessage(message);
+            } catch (Exception e) {
+                log.warn("브로드캐스트 전송 실패, 세션 제거 roomId={}, sessionId={}: {}", roomId, session.getId(), e.getMessage());
+                // 세션이 이미 죽었으면 map에서 제거
+                removeSession(channel, roomId, session);
+            }
         }
     }
 
-    public Set<WebSocketSession> getSessions(String roomId) {
-        return sessionMap.getOrDefault(roomId, Collections.emptySet());
+    // 방 안의 특정 유저 세션에만 전송 (WebRTC 시그널처럼 받을 사람이 정해진 경우)
+    public void sendToUser(SessionChannel channel, String roomId, Integer userId, BroadcastFrame frame) {
+        for (WebSocketSession session : getUserSessions(channel, roomId, userId)) {
+            if (!session.isOpen()) continue;
+
+            WebSocketMessage<?> message;
+            try {
+                message = frame.forSession(session);
+            } catch (UncheckedIOException e) {
+                log.error("유저 전송 프레임 변환 실패 roomId={}, userId={}", roomId, userId, e);
+                return;
+            }
+
+            try {
+                session.sendMessage(message);
+            } catch (Exception e) {
+                log.warn("유저 전송 실패, 세션 제거 roomId={}, userId={}: {}", roomId, userId, e.getMessage());
+                removeSession(channel, roomId, session);
+            }
+        }
+    }
+
+    // 세션 하나에만 전송 (전송 큐를 거쳐서 브로드캐스트와 순서가 섞이지 않게)
+    public void sendTo(WebSocketSession rawSession, WebSocketMessage<?> frame) throws IOException {
+        outbound(rawSession).sendMessage(frame);
+    }
+
+    public Set<WebSocketSession> getUserSessions(SessionChannel channel, String roomId, Integer userId) {
+        Map<Integer, Set<WebSocketSession>> users = userSessionMap.get(new RoomKey(channel, roomId));
+        if (users == null) return Collections.emptySet();
+        return users.getOrDefault(userId, Collections.emptySet());
     }
 
     // 해당 방에 userId 연결되어 있는지 확인
-    public boolean isUserConnected(String roomId, Integer userId) {
-        return getSessions(roomId).stream().anyMatch(session -> {
-            String connectedUserId = getUserId(session);
-            return userId.toString().equals(connectedUserId);
-        });
+    public boolean isUserConnected(SessionChannel channel, String roomId, Integer userId) {
+        return !getUserSessions(channel, roomId, userId).isEmpty();
+    }
+
+    public String getRoomId(WebSocketSession session) {
+        return (String) session.getAttributes().get(ROOM_ID_ATTR);
     }
 
-    // 쿼리스트링에서 userId 추출 (또는 attribute에서 추출)
-    public String getUserId(WebSocketSession session) {
-        // Attribute에 있을 경우 우선 (afterConnectionEstablished에서 저장했다면)
-        Object attr = session.getAttributes().get("userId");
-        if (attr != null) return attr.toString();
-        // 쿼리 파라미터에서 추출
-        return getQueryParam(session, "userId");
+    public Integer getUserId(WebSocketSession session) {
+        return (Integer) session.getAttributes().get(USER_ID_ATTR);
     }
 
-    public String getQueryParam(WebSocketSession session, String key) {
-        return UriComponentsBuilder.fromUri(Objects.requireNonNull(session.getUri())).build().getQueryParams().getFirst(key);
+    public Integer getLastMessageId(WebSocketSession session) {
+        return (Integer) session.getAttributes().get(LAST_MESSAGE_ID_ATTR);
     }
 
-    public boolean hasActiveSession(String roomId) {
-        Set<WebSocketSession> set = sessionMap.get(roomId);
+    private WebSocketSession outbound(WebSocketSession session) {
+        return (WebSocketSession) session.getAttributes()
+                .computeIfAbsent(OUTBOUND_ATTR, k -> outboundSessionFactory.decorate(session));
+    }
+
+    public boolean hasActiveSession(SessionChannel channel, String roomId) {
+        Set<WebSocketSession> set = sessionMap.get(new RoomKey(channel, roomId));
         return set != null && set.stream().anyMatch(WebSocketSession::isOpen);
     }
+
+    private record RoomKey(SessionChannel channel, String roomId) {
+    }
 }
@@ -0,0 +1,78 @@
+package com.example.kotsuexample.config.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// 웹소켓/Redis 페이로드 인코딩 (JSON 텍스트 또는 CBOR 바이너리)
+// 클라이언트가 핸드셰이크 때 CBOR 서브프로토콜을 요청한 세션만 바이너리로 주고받음
+@Component
+public class ChatWireCodec {
+
+    public static final String CBOR_SUBPROTOCOL = "kotsu.cbor.v1";
+    public static final List<String> SUB_PROTOCOLS = List.of(CBOR_SUBPROTOCOL);
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    public ChatWireCodec(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        // 스프링 ObjectMapper 설정(모듈 등)은 그대로, 포맷만 CBOR
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+
+    public static boolean isCbor(WebSocketSession session) {
+        return CBOR_SUBPROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    // 첫 바이트로 포맷 판별: JSON 은 '{' (또는 공백), CBOR 맵은 0xA0~0xBF, self-describe 태그는 0xD9
+    public static boolean isCbor(byte[] payload) {
+        if (payload.length == 0) return false;
+        int first = payload[0] & 0xFF;
+        return (first >= 0xA0 && first <= 0xBF) || first == 0xD9;
+    }
+
+    public static byte[] toBytes(BinaryMessage message) {
+        ByteBuffer buffer = message.getPayload();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    public <T> T read(byte[] payload, Class<T> type) throws IOException {
+        return mapperFor(isCbor(payload)).readValue(payload, type);
+    }
+
+    public byte[] write(Object value, boolean cbor) throws JsonProcessingException {
+        return mapperFor(cbor).writeValueAsBytes(value);
+    }
+
+    public JsonNode readTree(byte[] payload) throws IOException {
+        return mapperFor(isCbor(payload)).readTree(payload);
+    }
+
+    // readTree 로 한 번 읽은 프레임을 DTO 로 (CBOR 바이트 문자열/JSON base64 모두 byte[] 로 바뀜)
+    public <T> T convert(JsonNode tree, Class<T> type) throws JsonProcessingException {
+        return jsonMapper.treeToValue(tree, type);
+    }
+
+    // DTO 로 정의되지 않은 페이로드(시그널링 등)는 트리로 읽어서 포맷만 바꿈
+    public byte[] transcode(byte[] payload, boolean toCbor) throws IOException {
+        boolean cbor = isCbor(payload);
+        if (cbor == toCbor) return payload;
+        JsonNode tree = mapperFor(cbor).readTree(payload);
+        return mapperFor(toCbor).writeValueAsBytes(tree);
+    }
+
+    private ObjectMapper mapperFor(boolean cbor) {
+        return cbor ? cborMapper : jsonMapper;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.kotsuexample.config.websocket;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 세션별 전송 큐: sendMessage 는 큐에 넣기만 하고, 실제 전송은 공용 executor 가 세션당 한 쓰레드씩 순서대로 수행
+// 한 번에 drainSliceMs/drainBatch 까지만 보내고 다시 예약해서, 메시지가 많은 세션이 전송 쓰레드를 붙잡지 않게 함
+// 전송이 sendTimeLimit 을 넘기거나(OutboundSessionFactory watchdog 이 확인) 버퍼가 한도를 넘으면 느린 클라이언트로 보고 연결을 끊음
+public class OutboundSessionDecorator extends WebSocketSessionDecorator {
+
+    private final Executor executor;
+    private final int sendTimeLimitMs;
+    private final int bufferSizeLimit;
+    private final int drainSliceMs;
+    private final int drainBatch;
+    private final OutboundSessionFactory.Metrics metrics;
+
+    private final Queue<WebSocketMessage<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferSize = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean evicted = new AtomicBoolean();
+    private volatile long sendStartTime;
+
+    public OutboundSessionDecorator(WebSocketSession delegate, Executor executor,
+                                    int sendTimeLimitMs, int bufferSizeLimit,
+                                    int drainSliceMs, int drainBatch,
+                                    OutboundSessionFactory.Metrics metrics) {
+        super(delegate);
+        this.executor = executor;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.drainSliceMs = drainSliceMs;
+        this.drainBatch = drainBatch;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        if (evicted.get() || !isOpen()) {
+            metrics.dropped();
+            return;
+        }
+
+        if (isSendTimeExceeded() || bufferSize.get() + message.getPayloadLength() > bufferSizeLimit) {
+            metrics.dropped();
+            evict();
+            return;
+        }
+
+        queue.add(message);
+        bufferSize.addAndGet(message.getPayloadLength());
+        scheduleDrain();
+    }
+
+    public int getBufferSize() {
+        return bufferSize.get();
+    }
+
+    boolean isEvicted() {
+        return evicted.get();
+    }
+
+    boolean isSendTimeExceeded() {
+        long start = sendStartTime;
+        return start > 0 && System.currentTimeMillis() - start > sendTimeLimitMs;
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                evict();
+            }
+        }
+    }
+
+    private void drain() {
+        long sliceEnd = System.currentTimeMillis() + drainSliceMs;
+        int sent = 0;
+        try {
+            WebSocketMessage<?> message;
+            while (!evicted.get() && (message = queue.poll()) != null) {
+                bufferSize.addAndGet(-message.getPayloadLength());
+                sendStartTime = System.currentTimeMillis();
+                try {
+                    getDelegate().sendMessage(message);
+                } finally {
+                    sendStartTime = 0;
+                }
+                if (++sent >= drainBatch || System.currentTimeMillis() >= sliceEnd) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            evict();
+        } finally {
+            draining.set(false);
+            // 남은 메시지(양보했거나 비우는 도중 들어온 것)가 있으면 큐 뒤로 다시 예약
+            if (!queue.isEmpty() && !evicted.get()) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    void evict() {
+        if (!evicted.compareAndSet(false, true)) return;
+
+        queue.clear();
+        bufferSize.set(0);
+        metrics.evicted();
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception ignored) {
+            // 이미 끊긴 세션
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.kotsuexample.config.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 세션마다 전송 큐(OutboundSessionDecorator)를 붙여주고, 공용 전송 쓰레드와 메트릭을 관리
+// watchdog 이 주기적으로 전송이 sendTimeLimit 을 넘겨 멈춘 세션을 찾아 닫음 (막힌 전송 쓰레드를 풀어줌)
+@Component
+public class OutboundSessionFactory {
+
+    private final WebSocketOutboundProperties properties;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService watchdog;
+    // 닫기(close frame 전송)도 막힐 수 있으므로 watchdog 쓰레드가 아닌 별도 쓰레드에서
+    private final ExecutorService closer;
+    private final Set<OutboundSessionDecorator> sessions = ConcurrentHashMap.newKeySet();
+    private final Metrics metrics;
+
+    public OutboundSessionFactory(WebSocketOutboundProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.getDrainThreads(), r -> {
+            Thread thread = new Thread(r, "ws-outbound-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-outbound-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.closer = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "ws-outbound-closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, properties.getSendTimeLimitMs() / 5);
+        watchdog.scheduleWithFixedDelay(this::evictStuckSessions, interval, interval, TimeUnit.MILLISECONDS);
+        this.metrics = new Metrics(
+                Counter.builder("chat.websocket.outbound.dropped")
+                        .description("닫혔거나 느린 세션이라 버려진 메시지 수")
+                        .register(meterRegistry),
+                Counter.builder("chat.websocket.outbound.evicted")
+                        .description("느린 클라이언트로 판단되어 끊긴 세션 수")
+                        .register(meterRegistry)
+        );
+    }
+
+    public WebSocketSession decorate(WebSocketSession session) {
+        OutboundSessionDecorator decorated = new OutboundSessionDecorator(
+                session,
+                executor,
+                properties.getSendTimeLimitMs(),
+                properties.getBufferSizeLimit(),
+                properties.getDrainSliceMs(),
+                properties.getDrainBatch(),
+                metrics
+        );
+        sessions.add(decorated);
+        return decorated;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdown();
+        executor.shutdown();
+        closer.shutdown();
+    }
+
+    // 멈춘 세션은 다음 sendMessage 를 기다리지 않고 바로 닫음, 닫힌 세션은 감시 대상에서 제외
+    private void evictStuckSessions() {
+        sessions.removeIf(session -> {
+            if (session.isSendTimeExceeded()) {
+                closer.execute(session::evict);
+                return true;
+            }
+            return session.isEvicted() || !session.isOpen();
+        });
+    }
+
+    public static class Metrics {
+        private final Counter dropped;
+        private final Counter evicted;
+
+        Metrics(Counter dropped, Counter evicted) {
+            this.dropped = dropped;
+            this.evicted = evicted;
+        }
+
+        void dropped() {
+            dropped.increment();
+        }
+
+        void evicted() {
+            evicted.increment();
+        }
+    }
+}
@@ -1,63 +1,86 @@
 package com.example.kotsuexample.config.websocket;
 
-import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.config.redis.ChatPresenceRegistry;
+import com.example.kotsuexample.service.ChatMessageService;
 import com.example.kotsuexample.service.ChatReadService;
+import com.example.kotsuexample.service.EphemeralSignalService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
-public class PersonalChatHandler extends TextWebSocketHandler {
+public class PersonalChatHandler extends TextWebSocketHandler implements SubProtocolCapable {
 
     private final ObjectMapper objectMapper;
     private final ChatSessionManager sessionManager;
-    private final RedisPublisher redisPublisher;
+    private final ChatMessageService chatMessageService;
     private final ChatReadService chatReadService;
+    private final ChatReplayer chatReplayer;
+    private final EphemeralSignalService ephemeralSignalService;
+    private final ChatPresenceRegistry chatPresenceRegistry;
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        String roomId = sessionManager.getQueryParam(session, "roomId");
-        String userId = sessionManager.getQueryParam(session, "userId"); // 쿼리 파라미터에 userId 포함되어야 함
+        String roomId = sessionManager.getRoomId(session);
+        Integer userId = sessionManager.getUserId(session); // 쿼리 파라미터에 userId 포함되어야 함
 
-        sessionManager.addSession(roomId, session);
+        sessionManager.addSession(SessionChannel.CHAT, roomId, session);
+        // 다른 노드에서도 접속 중인 것으로 보이도록 (오프라인 알림 판단용)
+        chatPresenceRegistry.join(roomId, userId);
+        // 재접속(lastMessageId 포함)이면 놓친 메시지만 다시 전송
+        chatReplayer.replayMissed(session);
+        // 지금 방을 보고 있는 사용자 (PRESENCE)
+        ephemeralSignalService.sendPresenceSnapshot(session);
 
         // 읽음 처리
-        chatReadService.markChatAsRead(Integer.valueOf(roomId), Integer.valueOf(userId), LocalDateTime.now());
+        chatReadService.markChatAsRead(Integer.valueOf(roomId), userId, LocalDateTime.now());
     }
 
+    // 이 노드에서 한 번만 저장하고, 저장된 메시지를 Redis로 publish
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        redisPublisher.publish("chatroom:" + sessionManager.getQueryParam(session, "roomId"), message.getPayload());
+        try {
+            chatMessageService.handleIncomingMessage(
+                    sessionManager.getRoomId(session), sessionManager.getUserId(session), message.asBytes());
+        } catch (Exception e) {
+            // 잘못된 프레임 하나로 세션이 닫히지 않도록
+            log.warn("채팅 메시지 처리 실패 roomId={}, sessionId={}", sessionManager.getRoomId(session), session.getId(), e);
+        }
     }
 
+    // CBOR 서브프로토콜로 협상된 세션은 같은 DTO 를 바이너리 프레임으로 보냄
+    // 첨부파일도 ATTACHMENT 청크 프레임으로 나눠 받음 (AttachmentUploadService)
     @Override
     protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
-        String roomId = sessionManager.getQueryParam(session, "roomId");
-        String senderId = sessionManager.getQueryParam(session, "userId"); // 세션에 유저정보가 없다면 쿼리 파라미터로 받기
-//
-//        // 1. 파일 저장 (예: local → /uploads, 또는 AWS S3 업로드)
-//        String fileUrl = fileUploadService.saveFile(message.getPayload().asByteBuffer());
-//
-//        // 2. Redis 발행
-//        ChatMessageDTO dto = new ChatMessageDTO();
-//        dto.setChatRoomId(Integer.parseInt(roomId));
-//        dto.setSenderId(Integer.parseInt(senderId));
-//        dto.setMessageType(MessageType.FILE); // 또는 IMAGE
-//        dto.setMessage(fileUrl);
-//        redisPublisher.publish("chatroom:" + roomId, objectMapper.writeValueAsString(dto));
+        try {
+            chatMessageService.handleIncomingMessage(
+                    sessionManager.getRoomId(session), sessionManager.getUserId(session), ChatWireCodec.toBytes(message));
+        } catch (Exception e) {
+            log.warn("채팅 메시지 처리 실패 roomId={}, sessionId={}", sessionManager.getRoomId(session), session.getId(), e);
+        }
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return ChatWireCodec.SUB_PROTOCOLS;
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        String roomId = sessionManager.getQueryParam(session, "roomId");
-        sessionManager.removeSession(roomId, session);
+        String roomId = sessionManager.getRoomId(session);
+        sessionManager.removeSession(SessionChannel.CHAT, roomId, session);
+        chatPresenceRegistry.leave(roomId, sessionManager.getUserId(session));
     }
 }
@@ -0,0 +1,14 @@
+package com.example.kotsuexample.config.websocket;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 이 노드에서 (엔드포인트, 방)의 첫 세션이 들어오거나 마지막 세션이 나갔을 때 발행
+@Getter
+@RequiredArgsConstructor
+public class RoomSessionsChangedEvent {
+
+    private final SessionChannel channel;
+    private final String roomId;
+    private final boolean active;
+}
@@ -0,0 +1,8 @@
+package com.example.kotsuexample.config.websocket;
+
+// 세션이 연결된 엔드포인트 (프로토콜) - 같은 roomId 라도 엔드포인트가 다르면 다른 방으로 취급
+public enum SessionChannel {
+    CHAT,   // /ws/chat   1:1 채팅 (chatroom:{roomId})
+    STUDY,  // /ws/study  그룹 채팅 (chatroom:{roomId})
+    SIGNAL  // /ws/signal WebRTC 시그널 (signal:{roomId})
+}
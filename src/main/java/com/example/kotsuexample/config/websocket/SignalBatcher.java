@@ -0,0 +1,159 @@
+package com.example.kotsuexample.config.websocket;
+
+import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.entity.enums.MessageType;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// 통화 연결 직후 몰려오는 trickle ICE CANDIDATE 를 보낸 세션별로 짧게 모아서
+// 채널(받는 사람)마다 CANDIDATE_BATCH 하나로 Redis 에 발행 → Redis 발행/웹소켓 프레임 수가 후보 수가 아니라 구간 수에 비례
+// OFFER/ANSWER 등은 기다리지 않고, 그 전에 모인 후보부터 먼저 내보낸 뒤 바로 발행 (순서 유지)
+// 발행하는 시그널에는 보낸 세션 id 를 붙임 (SignalFrame) - 방 전체 시그널이 보낸 세션으로 되돌아가지 않도록
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignalBatcher {
+
+    private final RedisPublisher redisPublisher;
+    private final ChatWireCodec chatWireCodec;
+
+    // 0 이하면 묶지 않고 바로 발행 (기본값)
+    // CANDIDATE_BATCH 를 풀어서 처리하는 프론트엔드가 모두 배포된 뒤에만 켤 것 - 기존 클라이언트는 이 타입을 모름
+    @Value("${chat.signal.candidate-batch-ms:0}")
+    private long batchWindowMs;
+
+    // 이만큼 모이면 구간이 끝나기 전에 바로 발행
+    @Value("${chat.signal.candidate-batch-max:32}")
+    private int maxBatchSize;
+
+    // 키: 보낸 웹소켓 세션 id
+    private final Map<String, Pending> pendingBySender = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "signal-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (String senderId : pendingBySender.keySet()) {
+            discard(senderId);
+        }
+    }
+
+    public void candidate(String senderId, String channel, byte[] payload) {
+        if (batchWindowMs <= 0) {
+            redisPublisher.publish(channel, SignalFrame.encode(senderId, payload));
+            return;
+        }
+
+        Pending pending = pendingBySender.computeIfAbsent(senderId, Pending::new);
+        synchronized (pending) {
+            pending.byChannel.computeIfAbsent(channel, k -> new ArrayList<>()).add(payload);
+            pending.count++;
+            if (pending.count >= maxBatchSize) {
+                flush(pending);
+            } else if (pending.timer == null) {
+                pending.timer = scheduler.schedule(() -> flushScheduled(pending), batchWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // 후보가 아닌 시그널 - 모아둔 후보를 먼저 보내고 바로 발행
+    public void immediate(String senderId, String channel, byte[] payload) {
+        Pending pending = pendingBySender.get(senderId);
+        if (pending == null) {
+            redisPublisher.publish(channel, SignalFrame.encode(senderId, payload));
+            return;
+        }
+        synchronized (pending) {
+            flush(pending);
+            redisPublisher.publish(channel, SignalFrame.encode(senderId, payload));
+        }
+    }
+
+    // 세션이 닫힐 때 남은 후보를 내보내고 상태 정리
+    public void discard(String senderId) {
+        Pending pending = pendingBySender.remove(senderId);
+        if (pending == null) return;
+        synchronized (pending) {
+            flush(pending);
+        }
+    }
+
+    private void flushScheduled(Pending pending) {
+        synchronized (pending) {
+            pending.timer = null;
+            flush(pending);
+        }
+    }
+
+    private void flush(Pending pending) {
+        if (pending.timer != null) {
+            pending.timer.cancel(false);
+            pending.timer = null;
+        }
+        for (Map.Entry<String, List<byte[]>> entry : pending.byChannel.entrySet()) {
+            List<byte[]> payloads = entry.getValue();
+            try {
+                // 하나뿐이면 원래 프레임 그대로
+                byte[] payload = payloads.size() == 1 ? payloads.get(0) : batch(payloads);
+                redisPublisher.publish(entry.getKey(), SignalFrame.encode(pending.senderId, payload));
+            } catch (Exception e) {
+                log.error("CANDIDATE 묶음 발행 실패 channel={}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        pending.byChannel.clear();
+        pending.count = 0;
+    }
+
+    // { "type": "CANDIDATE_BATCH", "to": ..., "candidates": [ 원래 CANDIDATE 시그널들 ] }
+    private byte[] batch(List<byte[]> payloads) throws Exception {
+        boolean cbor = ChatWireCodec.isCbor(payloads.get(0));
+        ObjectNode envelope = JsonNodeFactory.instance.objectNode();
+        envelope.put("type", MessageType.CANDIDATE_BATCH.name());
+        ArrayNode candidates = envelope.putArray("candidates");
+        for (byte[] payload : payloads) {
+            candidates.add(chatWireCodec.readTree(payload));
+        }
+        if (candidates.get(0).has("to")) {
+            envelope.set("to", candidates.get(0).get("to"));
+        }
+        return chatWireCodec.write(envelope, cbor);
+    }
+
+    private static final class Pending {
+        private final String senderId;
+        // 받는 채널별 후보 (도착 순서 유지)
+        private final Map<String, List<byte[]>> byChannel = new LinkedHashMap<>();
+        private int count;
+        private ScheduledFuture<?> timer;
+
+        private Pending(String senderId) {
+            this.senderId = senderId;
+        }
+    }
+}
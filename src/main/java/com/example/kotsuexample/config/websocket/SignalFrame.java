@@ -0,0 +1,31 @@
+package com.example.kotsuexample.config.websocket;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Redis 로 발행하는 시그널 앞에 보낸 웹소켓 세션 id 를 붙인 프레임
+// [0x00][id 길이][id][원래 시그널] - 받는 노드가 방 전체로 보낼 때 보낸 세션을 뺄 수 있도록
+// JSON('{')/CBOR(map) 시그널은 0x00 으로 시작하지 않으므로 헤더가 없으면 예전 형식으로 보고 그대로 씀
+public record SignalFrame(String senderSessionId, byte[] payload) {
+
+    private static final byte MARKER = 0x00;
+
+    public static byte[] encode(String senderSessionId, byte[] payload) {
+        byte[] id = senderSessionId.getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[2 + id.length + payload.length];
+        frame[0] = MARKER;
+        frame[1] = (byte) id.length;
+        System.arraycopy(id, 0, frame, 2, id.length);
+        System.arraycopy(payload, 0, frame, 2 + id.length, payload.length);
+        return frame;
+    }
+
+    public static SignalFrame decode(byte[] frame) {
+        if (frame.length < 2 || frame[0] != MARKER) {
+            return new SignalFrame(null, frame);
+        }
+        int idLength = frame[1] & 0xFF;
+        String id = new String(frame, 2, idLength, StandardCharsets.UTF_8);
+        return new SignalFrame(id, Arrays.copyOfRange(frame, 2 + idLength, frame.length));
+    }
+}
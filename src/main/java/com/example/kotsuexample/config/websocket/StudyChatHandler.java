@@ -1,58 +1,77 @@
 package com.example.kotsuexample.config.websocket;
 
-import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.service.ChatMessageService;
+import com.example.kotsuexample.service.EphemeralSignalService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import java.util.List;
+
+@Slf4j
 @Component
 @RequiredArgsConstructor
-public class StudyChatHandler extends TextWebSocketHandler {
+public class StudyChatHandler extends TextWebSocketHandler implements SubProtocolCapable {
 
-    private final RedisPublisher redisPublisher;
+    private final ChatMessageService chatMessageService;
     private final ChatSessionManager sessionManager;
+    private final ChatReplayer chatReplayer;
+    private final EphemeralSignalService ephemeralSignalService;
 
-    // WebSocket 연결 성립 시 세션 등록 (roomId, userId)
+    // WebSocket 연결 성립 시 세션 등록 (roomId, userId 는 핸드셰이크 때 attribute 로 저장됨)
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        String roomId = getRoomId(session);
-        String userId = getUserId(session);
-        sessionManager.addSession(roomId, session);
-        session.getAttributes().put("userId", userId); // (선택) Attribute에 저장
+        sessionManager.addSession(SessionChannel.STUDY, getRoomId(session), session);
+        // 재접속(lastMessageId 포함)이면 놓친 메시지만 다시 전송
+        chatReplayer.replayMissed(session);
+        // 지금 방을 보고 있는 사용자 (PRESENCE)
+        ephemeralSignalService.sendPresenceSnapshot(session);
     }
 
-    // 텍스트 메시지 수신 시 Redis로 publish (핵심 로직)
+    // 텍스트 메시지 수신 시 이 노드에서 한 번만 저장하고 Redis로 publish (핵심 로직)
     @Override
     protected void handleTextMessage(WebSocketSession session, org.springframework.web.socket.TextMessage message) throws Exception {
         String roomId = getRoomId(session);
         // Redis 채널명: chatroom:roomId (ex: chatroom:123)
-        redisPublisher.publish("chatroom:" + roomId, message.getPayload());
+        try {
+            chatMessageService.handleIncomingMessage(roomId, sessionManager.getUserId(session), message.asBytes());
+        } catch (Exception e) {
+            // 잘못된 프레임 하나로 세션이 닫히지 않도록
+            log.warn("스터디 채팅 메시지 처리 실패 roomId={}, sessionId={}", roomId, session.getId(), e);
+        }
     }
 
-    // 연결 해제 시 세션 삭제
+    // CBOR 서브프로토콜로 협상된 세션은 같은 DTO 를 바이너리 프레임으로 보냄
+    // 첨부파일도 ATTACHMENT 청크 프레임으로 나눠 받음 (AttachmentUploadService)
     @Override
-    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        String roomId = getRoomId(session);
-        sessionManager.removeSession(roomId, session);
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        try {
+            chatMessageService.handleIncomingMessage(
+                    getRoomId(session), sessionManager.getUserId(session), ChatWireCodec.toBytes(message));
+        } catch (Exception e) {
+            log.warn("스터디 채팅 메시지 처리 실패 roomId={}, sessionId={}", getRoomId(session), session.getId(), e);
+        }
     }
 
-    // (필요시) 바이너리 메시지도 분기 가능하지만, 대부분 텍스트만 사용
     @Override
-    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
-        // (P2P 미디어 데이터는 WebRTC에서 직접 다룸. 보통 이건 비워둬도 OK)
+    public List<String> getSubProtocols() {
+        return ChatWireCodec.SUB_PROTOCOLS;
     }
 
-    // ===== 쿼리스트링 파싱 유틸 =====
-    private String getRoomId(WebSocketSession session) {
-        // ws://.../ws/study?roomId=123&userId=5
-        // 아래 코드로 파싱
-        return sessionManager.getQueryParam(session, "roomId");
+    // 연결 해제 시 세션 삭제
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        String roomId = getRoomId(session);
+        sessionManager.removeSession(SessionChannel.STUDY, roomId, session);
     }
 
-    private String getUserId(WebSocketSession session) {
-        return sessionManager.getQueryParam(session, "userId");
+    // ws://.../ws/study?roomId=123&userId=5 → ChatHandshakeInterceptor 가 파싱해 둔 값
+    private String getRoomId(WebSocketSession session) {
+        return sessionManager.getRoomId(session);
     }
 }
@@ -1,41 +1,98 @@
 package com.example.kotsuexample.config.websocket;
 
-import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.config.redis.RoomSubscriptionManager;
+import com.example.kotsuexample.config.redis.VideoPresenceRegistry;
+import com.example.kotsuexample.dto.SignalEnvelope;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import java.util.List;
+
+@Slf4j
 @Component
 @RequiredArgsConstructor
-public class VideoSignalHandler extends TextWebSocketHandler {
-    private final RedisPublisher redisPublisher;
+public class VideoSignalHandler extends TextWebSocketHandler implements SubProtocolCapable {
     private final ChatSessionManager sessionManager;
+    private final ChatWireCodec chatWireCodec;
+    private final RoomSubscriptionManager roomSubscriptionManager;
+    private final SignalBatcher signalBatcher;
+    private final VideoPresenceRegistry videoPresenceRegistry;
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String roomId = getRoomId(session);
-        sessionManager.addSession(roomId, session);
+        sessionManager.addSession(SessionChannel.SIGNAL, roomId, session);
+        // 나에게 온 시그널만 받는 유저 채널 구독
+        roomSubscriptionManager.reconcileUserSignal(roomId, sessionManager.getUserId(session));
+        videoPresenceRegistry.join(roomId, sessionManager.getUserId(session));
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         String roomId = getRoomId(session);
-        sessionManager.removeSession(roomId, session);
+        signalBatcher.discard(session.getId());
+        sessionManager.removeSession(SessionChannel.SIGNAL, roomId, session);
+        roomSubscriptionManager.reconcileUserSignal(roomId, sessionManager.getUserId(session));
+        videoPresenceRegistry.leave(roomId, sessionManager.getUserId(session));
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        route(session, message.asBytes());
+    }
+
+    // CBOR 세션의 시그널은 바이너리 그대로 Redis 로 (받는 쪽에서 세션 포맷에 맞게 변환)
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        route(session, ChatWireCodec.toBytes(message));
+    }
+
+    // to 가 있으면 그 유저 채널("signal:{roomId}:{userId}")로만 → 그 유저 세션이 있는 노드만 받음
+    // 메시 통화에서 CANDIDATE 하나가 방 인원 수만큼 퍼지지 않도록 (없으면 보낸 세션을 뺀 방 전체)
+    // 읽을 수 없는 프레임은 방 전체로 퍼뜨리지 않고 버림
+    // 로컬 세션에 바로 보내지 않고 항상 Redis 를 거쳐서 방 전체 시그널(OFFER 등)과 순서가 뒤바뀌지 않게 함
+    // CANDIDATE 는 SignalBatcher 가 잠깐 모아서 묶음으로 발행
+    private void route(WebSocketSession session, byte[] payload) {
         String roomId = getRoomId(session);
-        redisPublisher.publish("signal:" + roomId, message.getPayload());
+        SignalEnvelope envelope;
+        try {
+            envelope = chatWireCodec.read(payload, SignalEnvelope.class);
+        } catch (Exception e) {
+            log.warn("잘못된 시그널 프레임 버림 roomId={}, sessionId={}: {}", roomId, session.getId(), e.getMessage());
+            return;
+        }
+        if (envelope == null) {
+            log.warn("빈 시그널 프레임 버림 roomId={}, sessionId={}", roomId, session.getId());
+            return;
+        }
+        if (envelope.isPing()) {
+            // 클라이언트 하트비트 - 다른 참가자에게는 보내지 않음
+            videoPresenceRegistry.heartbeat(roomId, sessionManager.getUserId(session));
+            return;
+        }
+        Integer to = envelope.getTo();
+        String channel = to != null ? "signal:" + roomId + ":" + to : "signal:" + roomId;
+
+        if (envelope.isCandidate()) {
+            signalBatcher.candidate(session.getId(), channel, payload);
+        } else {
+            signalBatcher.immediate(session.getId(), channel, payload);
+        }
     }
 
-    private String getRoomId(WebSocketSession session) {
-        return sessionManager.getQueryParam(session, "roomId");
+    @Override
+    public List<String> getSubProtocols() {
+        return ChatWireCodec.SUB_PROTOCOLS;
     }
-    private String getUserId(WebSocketSession session) {
-        return sessionManager.getQueryParam(session, "userId");
+
+    private String getRoomId(WebSocketSession session) {
+        return sessionManager.getRoomId(session);
     }
 }
@@ -1,10 +1,13 @@
 package com.example.kotsuexample.config.websocket;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
 @Configuration
 @EnableWebSocket
@@ -14,17 +17,31 @@ public class WebSocketConfig implements WebSocketConfigurer {
     private final StudyChatHandler studyChatHandler;
     private final PersonalChatHandler personalChatHandler;
     private final VideoSignalHandler videoSignalHandler;
+    private final ChatHandshakeInterceptor chatHandshakeInterceptor;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(studyChatHandler, "/ws/study")
+                .addInterceptors(chatHandshakeInterceptor)
                 .setAllowedOrigins("https://kotsu-kotsu.org", "http://localhost:5173");
 
 //      ex. wss://localhost:8080/ws/chat?roomId=123&userId=5
         registry.addHandler(personalChatHandler, "/ws/chat")
+                .addInterceptors(chatHandshakeInterceptor)
                 .setAllowedOrigins("https://kotsu-kotsu.org", "http://localhost:5173");
 
         registry.addHandler(videoSignalHandler, "/ws/signal")
+                .addInterceptors(chatHandshakeInterceptor)
                 .setAllowedOrigins("https://kotsu-kotsu.org", "http://localhost:5173");
     }
+
+    // 첨부파일 청크(바이너리 프레임)를 받을 수 있도록 바이너리 버퍼만 늘림 (기본 8KB)
+    // 세션마다 이 크기로 잡히므로 청크 크기는 이 값 이하로 보내야 함
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer(
+            @Value("${chat.attachment.max-frame-bytes:32768}") int maxFrameBytes) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(maxFrameBytes);
+        return container;
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.kotsuexample.config.websocket;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "chat.websocket.outbound")
+public class WebSocketOutboundProperties {
+    // 한 프레임 전송이 이 시간(ms)을 넘기면 느린 클라이언트로 보고 연결 종료
+    private int sendTimeLimitMs = 5000;
+    // 세션별 전송 대기 버퍼 한도 (bytes)
+    private int bufferSizeLimit = 512 * 1024;
+    // 세션 큐를 비우는 공용 쓰레드 수
+    private int drainThreads = 16;
+    // 세션 하나가 전송 쓰레드를 한 번에 쓰는 최대 시간 - 넘기면 큐 뒤로 다시 예약해서 다른 세션에 양보
+    private int drainSliceMs = 50;
+    // 한 번에 보내는 최대 메시지 수 (drainSliceMs 와 같이, 먼저 닿는 쪽에서 양보)
+    private int drainBatch = 64;
+}
@@ -4,6 +4,7 @@ import com.example.kotsuexample.config.CurrentUser;
 import com.example.kotsuexample.dto.ChatMessageDTO;
 import com.example.kotsuexample.dto.GroupChatMessageDTO;
 import com.example.kotsuexample.service.ChatMessageService;
+import com.example.kotsuexample.service.ChatSearchService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -20,11 +21,16 @@ import java.util.List;
 public class ChatMessageController {
 
     private final ChatMessageService chatMessageService;
+    private final ChatSearchService chatSearchService;
 
+    // before/after: 기준 메시지 id (없으면 최신 페이지), size: 페이지 크기 (최대 100)
     @GetMapping("/rooms/{roomId}/messages")
     public ResponseEntity<List<ChatMessageDTO>> getChatMessages(@CurrentUser Integer userId,
-                                                                @PathVariable Integer roomId) {
-        List<ChatMessageDTO> dtos = chatMessageService.getChatMessagesWithReadStatus(roomId, userId);
+                                                                @PathVariable Integer roomId,
+                                                                @RequestParam(required = false) Integer before,
+                                                                @RequestParam(required = false) Integer after,
+                                                                @RequestParam(defaultValue = "50") Integer size) {
+        List<ChatMessageDTO> dtos = chatMessageService.getChatMessagesWithReadStatus(roomId, userId, before, after, size);
         return ResponseEntity.ok(dtos);
     }
 
@@ -32,8 +38,22 @@ public class ChatMessageController {
     @GetMapping("/rooms/{roomId}/group-messages")
     public ResponseEntity<List<GroupChatMessageDTO>> getGroupChatMessages(
             @CurrentUser Integer userId,
-            @PathVariable Integer roomId) {
-        List<GroupChatMessageDTO> dtos = chatMessageService.getGroupMessagesWithUnreadCount(roomId, userId);
+            @PathVariable Integer roomId,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "50") Integer size) {
+        List<GroupChatMessageDTO> dtos = chatMessageService.getGroupMessagesWithUnreadCount(roomId, userId, before, after, size);
+        return ResponseEntity.ok(dtos);
+    }
+
+    // 채팅 내역 검색 (최신순) - 다음 페이지는 마지막 결과의 id 를 before 로 전달
+    @GetMapping("/rooms/{roomId}/search")
+    public ResponseEntity<List<ChatMessageDTO>> searchChatMessages(@CurrentUser Integer userId,
+                                                                   @PathVariable Integer roomId,
+                                                                   @RequestParam String q,
+                                                                   @RequestParam(required = false) Integer before,
+                                                                   @RequestParam(defaultValue = "20") Integer size) {
+        List<ChatMessageDTO> dtos = chatSearchService.search(roomId, userId, q, before, size);
         return ResponseEntity.ok(dtos);
     }
 
@@ -1,21 +1,28 @@
 package com.example.kotsuexample.controller;
 
 import com.example.kotsuexample.config.CurrentUser;
-import com.example.kotsuexample.config.websocket.ChatSessionManager;
+import com.example.kotsuexample.config.redis.VideoPresenceRegistry;
+import com.example.kotsuexample.dto.UserResponse;
 import com.example.kotsuexample.service.ChatMessageService;
+import com.example.kotsuexample.service.StudyRoomService;
 import com.example.kotsuexample.service.UserService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/video-room")
 public class VideoRoomController {
     private final ChatMessageService chatMessageService;
     private final UserService userService;
-    private final ChatSessionManager sessionManager;
+    private final VideoPresenceRegistry videoPresenceRegistry;
+    private final StudyRoomService studyRoomService;
 
     // 🔵 화상방 입장 알림
     @PostMapping("/enter/{roomId}")
@@ -24,7 +31,8 @@ public class VideoRoomController {
             @PathVariable Integer roomId) throws JsonProcessingException {
         String nickname = userService.getSimpleUserInfoById(userId).getNickname();
         String msg = nickname + "님이 화상채팅방에 입장했습니다.";
-        chatMessageService.sendSystemMessageToGroup(roomId, msg);
+        // 입장/퇴장마다 채팅 내역에 쌓이지 않도록 저장하지 않고 알림만
+        chatMessageService.sendTransientSystemMessageToGroup(roomId, msg);
         return ResponseEntity.ok().build();
     }
 
@@ -35,13 +43,25 @@ public class VideoRoomController {
             @PathVariable Integer roomId) throws JsonProcessingException {
         String nickname = userService.getSimpleUserInfoById(userId).getNickname();
         String msg = nickname + "님이 화상채팅방에서 퇴장했습니다.";
-        chatMessageService.sendSystemMessageToGroup(roomId, msg);
+        chatMessageService.sendTransientSystemMessageToGroup(roomId, msg);
         return ResponseEntity.ok().build();
     }
 
+    // 클러스터 전체 기준 (어느 노드에 접속했든)
     @GetMapping("/exists/{studyRoomId}")
     public ResponseEntity<Boolean> exists(@PathVariable String studyRoomId) {
-        boolean hasActive = sessionManager.hasActiveSession(studyRoomId);
+        boolean hasActive = videoPresenceRegistry.exists(studyRoomId);
         return ResponseEntity.ok(hasActive);
     }
+
+    // 지금 화상방에 있는 참가자 (스터디룸 멤버만)
+    @GetMapping("/participants/{studyRoomId}")
+    public ResponseEntity<List<UserResponse>> participants(
+            @CurrentUser Integer userId,
+            @PathVariable Integer studyRoomId) {
+        studyRoomService.checkMember(studyRoomId, userId);
+        List<Integer> userIds = videoPresenceRegistry.participants(String.valueOf(studyRoomId));
+        Map<Integer, UserResponse> users = userService.getSimpleUserInfos(userIds);
+        return ResponseEntity.ok(userIds.stream().map(users::get).filter(Objects::nonNull).toList());
+    }
 }
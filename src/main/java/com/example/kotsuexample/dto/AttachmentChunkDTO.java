@@ -0,0 +1,24 @@
+package com.example.kotsuexample.dto;
+
+import com.example.kotsuexample.entity.enums.MessageType;
+import lombok.*;
+
+// 웹소켓으로 나눠 보내는 첨부파일 청크 (messageType = ATTACHMENT)
+// CBOR 세션이면 data 가 바이트 문자열 그대로, JSON 세션이면 base64 문자열로 옴
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttachmentChunkDTO {
+    private MessageType messageType;
+    private String uploadId;          // 클라이언트가 정한 업로드 식별자 (UUID)
+    private int seq;                  // 0 부터 1 씩 증가
+    private boolean last;             // 마지막 청크 여부
+    private Integer chatRoomId;
+    private Integer senderId;
+    private MessageType attachmentType; // FILE 또는 IMAGE (첫 청크에만)
+    private String fileName;            // 첫 청크에만
+    private String contentType;         // 첫 청크에만
+    private byte[] data;
+}
@@ -23,4 +23,5 @@ public class GroupChatMessageDTO {
     private Integer messageId;        // "READ" 이벤트면 이 필드만 있음
     private String lastReadAt;        // "READ" 이벤트면 이 필드만 있음
     private Map<Integer, Integer> unreadCounts;
+    private Boolean active;           // "TYPING"/"PRESENCE" 이벤트면 이 필드만 있음
 }
@@ -0,0 +1,24 @@
+package com.example.kotsuexample.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// WebRTC 시그널(OFFER/ANSWER/CANDIDATE ...)에서 라우팅에 필요한 필드만 읽음 (나머지는 그대로 전달)
+@Getter
+@Setter
+@NoArgsConstructor
+public class SignalEnvelope {
+    private Integer to;   // 받을 유저 id (없으면 방 전체)
+    @JsonAlias("messageType")
+    private String type;  // OFFER / ANSWER / CANDIDATE / PING ...
+
+    public boolean isCandidate() {
+        return "CANDIDATE".equalsIgnoreCase(type);
+    }
+
+    public boolean isPing() {
+        return "PING".equalsIgnoreCase(type);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.kotsuexample.dto;
+
+import com.example.kotsuexample.entity.enums.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 노드 간 SSE 전달용 (Redis "sse:{userId}" 채널)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SseEnvelope {
+    private String origin;          // 발행한 노드 (자기 메시지는 무시)
+    private NotificationType type;
+    private Object data;            // 받는 노드에서는 Map 등으로 읽혀서 같은 JSON 으로 다시 직렬화됨
+}
@@ -9,13 +9,17 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        // 채팅방별 keyset 페이지 조회용 (chat_room_id, id)
+        @Index(name = "idx_chat_messages_room_id", columnList = "chat_room_id, id"),
+        // 읽은 시각 이후 미확인 수 계산용 - 안 읽은 행만 범위로 읽음 (UnreadCounterService.markRead)
+        @Index(name = "idx_chat_messages_room_sent_at", columnList = "chat_room_id, sent_at, sender_id")
+})
 @Getter
 @NoArgsConstructor
 public class ChatMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
     @Column(name = "chat_room_id", nullable = false)
@@ -35,8 +39,10 @@ public class ChatMessage {
     @Column(name = "sent_at", updatable = false)
     private LocalDateTime sentAt;
 
+    // id 는 write-behind 버퍼가 미리 발급 (ChatMessageWriteBuffer)
     @Builder
-    public ChatMessage(Integer chatRoomId, Integer senderId, MessageType messageType, String message, LocalDateTime sentAt) {
+    public ChatMessage(Integer id, Integer chatRoomId, Integer senderId, MessageType messageType, String message, LocalDateTime sentAt) {
+        this.id = id;
         this.chatRoomId = chatRoomId;
         this.senderId = senderId;
         this.messageType = messageType;
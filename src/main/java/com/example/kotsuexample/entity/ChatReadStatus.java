@@ -8,7 +8,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_read_status")
+@Table(name = "chat_read_status", uniqueConstraints = {
+        // ReadReceiptBuffer 의 INSERT ... ON DUPLICATE KEY UPDATE 기준 (기존 테이블은 ChatReadStatusMigration 이 추가)
+        @UniqueConstraint(name = "uk_chat_read_status_room_user", columnNames = {"chat_room_id", "user_id"})
+})
 @Getter
 @NoArgsConstructor
 public class ChatReadStatus {
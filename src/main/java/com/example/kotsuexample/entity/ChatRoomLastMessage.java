@@ -0,0 +1,38 @@
+package com.example.kotsuexample.entity;
+
+import com.example.kotsuexample.entity.enums.MessageType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 채팅방별 마지막 메시지 (채팅 목록 조회용 비정규화 테이블)
+// 메시지 저장(ChatMessageWriteBuffer) 때 ChatRoomLastMessageProjection 이 같이 갱신
+@Entity
+@Table(name = "chat_room_last_message")
+@Getter
+@NoArgsConstructor
+public class ChatRoomLastMessage {
+
+    @Id
+    @Column(name = "chat_room_id")
+    private Integer chatRoomId;
+
+    @Column(name = "message_id", nullable = false)
+    private Integer messageId;
+
+    @Column(name = "sender_id", nullable = false)
+    private Integer senderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "message_type", nullable = false)
+    private MessageType messageType;
+
+    @Lob
+    @Column(nullable = false)
+    private String message;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
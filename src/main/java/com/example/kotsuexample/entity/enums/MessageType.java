@@ -8,11 +8,16 @@ public enum MessageType {
     OFFER,
     ANSWER,
     CANDIDATE,
+    CANDIDATE_BATCH, // 짧은 구간에 모인 CANDIDATE 묶음 (SignalBatcher)
 
     TEXT,
     IMAGE,
     FILE,
+    ATTACHMENT, // 첨부파일 청크 프레임 (저장/브로드캐스트되지 않음)
 
     READ,
-    SYSTEM
+    SYSTEM,
+    TYPING,   // 휘발성 - DB 에 저장하지 않음
+    PRESENCE, // 휘발성 - Redis TTL 로만 관리
+    RESYNC
 }
@@ -1,7 +1,10 @@
 package com.example.kotsuexample.repository;
 
 import com.example.kotsuexample.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,4 +17,54 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Intege
     Optional<ChatMessage> findTopByChatRoomIdOrderBySentAtDesc(Integer roomId);
 
     int countByChatRoomIdAndSenderIdNot(Integer roomId, Integer userId);
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM ChatMessage m")
+    Integer findMaxId();
+
+    // keyset 페이지 조회 (chat_room_id, id 인덱스 사용)
+    List<ChatMessage> findByChatRoomIdOrderByIdDesc(Integer chatRoomId, Pageable pageable);
+
+    List<ChatMessage> findByChatRoomIdAndIdLessThanOrderByIdDesc(Integer chatRoomId, Integer id, Pageable pageable);
+
+    List<ChatMessage> findByChatRoomIdAndIdGreaterThanOrderByIdAsc(Integer chatRoomId, Integer id, Pageable pageable);
+
+    // 읽음 처리로 미확인 인원 수가 바뀌는 메시지만 조회 (본문 @Lob 은 읽지 않음)
+    @Query("""
+        SELECT m.id AS id, m.senderId AS senderId, m.sentAt AS sentAt
+        FROM ChatMessage m
+        WHERE m.chatRoomId = :roomId
+          AND m.sentAt > :from
+          AND m.sentAt <= :to
+          AND m.id <= :maxId
+        ORDER BY m.id ASC
+        """)
+    List<ReadMarker> findReadMarkersBetween(@Param("roomId") Integer roomId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("maxId") Integer maxId);
+
+    // 유저가 속한 모든 채팅방의 미확인 메시지 수를 한 번에 조회 (미확인 0 인 방은 결과에 없음)
+    @Query(value = """
+        SELECT m.chat_room_id AS chatRoomId, COUNT(*) AS unreadCount
+        FROM chat_messages m
+        JOIN chat_room_members cm
+          ON cm.chat_room_id = m.chat_room_id AND cm.user_id = :userId
+        LEFT JOIN chat_read_status rs
+          ON rs.chat_room_id = m.chat_room_id AND rs.user_id = :userId
+        WHERE m.sender_id <> :userId
+          AND (rs.last_read_at IS NULL OR m.sent_at > rs.last_read_at)
+        GROUP BY m.chat_room_id
+        """, nativeQuery = true)
+    List<RoomUnreadCount> countUnreadByRoomForUser(@Param("userId") Integer userId);
+
+    interface RoomUnreadCount {
+        Integer getChatRoomId();
+        Long getUnreadCount();
+    }
+
+    interface ReadMarker {
+        Integer getId();
+        Integer getSenderId();
+        LocalDateTime getSentAt();
+    }
 }
@@ -0,0 +1,7 @@
+package com.example.kotsuexample.repository;
+
+import com.example.kotsuexample.entity.ChatRoomLastMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ChatRoomLastMessageRepository extends JpaRepository<ChatRoomLastMessage, Integer> {
+}
@@ -3,6 +3,7 @@ package com.example.kotsuexample.repository;
 import com.example.kotsuexample.entity.ChatRoomMember;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ChatRoomMemberRepository extends JpaRepository<ChatRoomMember, Integer> {
@@ -10,6 +11,8 @@ public interface ChatRoomMemberRepository extends JpaRepository<ChatRoomMember,
 
     List<ChatRoomMember> findByUserId(Integer userId);
 
+    List<ChatRoomMember> findByChatRoomIdIn(Collection<Integer> chatRoomIds);
+
     boolean existsByChatRoomIdAndUserId(Integer id, Integer id1);
 
     void deleteByChatRoomIdAndUserId(Integer id, Integer userId);
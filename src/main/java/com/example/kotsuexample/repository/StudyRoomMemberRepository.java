@@ -13,5 +13,7 @@ public interface StudyRoomMemberRepository extends JpaRepository<StudyRoomMember
 
     Optional<StudyRoomMember> findByStudyRoom_IdAndUser_Id(Integer studyRoomId, Integer userId);
 
+    boolean existsByStudyRoom_IdAndUser_Id(Integer studyRoomId, Integer userId);
+
     void deleteByStudyRoom_Id(Integer id);
 }
@@ -0,0 +1,18 @@
+package com.example.kotsuexample.service;
+
+// 첨부파일 저장소 - 파일 전체를 메모리에 두지 않고 파트 단위로 이어 씀
+// chat.attachment.storage 값에 따라 S3AttachmentStorage / LocalAttachmentStorage 중 하나가 등록됨
+public interface AttachmentStorage {
+
+    Upload begin(String key, String contentType);
+
+    interface Upload {
+        // partNumber 는 1 부터 순서대로, data 의 앞 length 바이트만 사용
+        void writePart(int partNumber, byte[] data, int length);
+
+        // 업로드를 마치고 접근 URL 반환
+        String complete();
+
+        void abort();
+    }
+}
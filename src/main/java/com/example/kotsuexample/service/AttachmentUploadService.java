@@ -0,0 +1,261 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.config.s3.AttachmentProperties;
+import com.example.kotsuexample.dto.AttachmentChunkDTO;
+import com.example.kotsuexample.dto.GroupChatMessageDTO;
+import com.example.kotsuexample.entity.enums.MessageType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// 웹소켓 청크 프레임을 모아 저장소에 파트 단위로 올림
+// 업로드 하나당 메모리에는 채우는 중인 파트 하나 + 올리는 중인 파트 하나까지만 유지
+// 저장소 호출(시작/파트/완료/중단)은 업로드 전용 쓰레드에서 - 웹소켓 쓰레드는 청크를 버퍼에 복사만 함
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttachmentUploadService {
+
+    private final AttachmentStorage attachmentStorage;
+    private final AttachmentProperties properties;
+
+    private final Map<String, PendingUpload> uploads = new ConcurrentHashMap<>();
+    private ExecutorService uploadExecutor;
+
+    @PostConstruct
+    public void init() {
+        uploadExecutor = Executors.newFixedThreadPool(properties.getUploadThreads(), r -> {
+            Thread thread = new Thread(r, "chat-attachment-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // 올리는 중인 파트/중단 요청은 잠깐 기다려 줌
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+        try {
+            uploadExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 마지막 청크면 남은 파트/완료가 끝난 뒤 채팅 메시지로 보낼 FILE/IMAGE DTO 를 주는 future 를, 아니면 빈 값 반환
+    // roomId, userId 는 웹소켓 세션의 방/사용자 (프레임의 chatRoomId/senderId 는 믿지 않음)
+    public Optional<CompletableFuture<GroupChatMessageDTO>> accept(Integer roomId, Integer userId, AttachmentChunkDTO chunk) {
+        if (chunk.getUploadId() == null) {
+            throw new IllegalArgumentException("uploadId 가 없습니다.");
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("인증되지 않은 세션입니다.");
+        }
+
+        PendingUpload upload = chunk.getSeq() == 0 ? begin(roomId, userId, chunk) : uploads.get(chunk.getUploadId());
+        if (upload == null) {
+            throw new IllegalArgumentException("진행 중인 업로드가 아닙니다: " + chunk.getUploadId());
+        }
+
+        synchronized (upload) {
+            // 다른 사용자의 프레임으로는 업로드를 중단시킬 수 없도록 먼저 확인
+            // (프레임의 senderId 는 클라이언트가 마음대로 넣을 수 있으므로 세션의 userId 로 비교)
+            if (!upload.senderId.equals(userId)) {
+                throw new IllegalArgumentException("업로드를 시작한 사용자가 아닙니다.");
+            }
+            try {
+                if (upload.finishing || chunk.getSeq() != upload.nextSeq) {
+                    throw new IllegalStateException("청크 순서 오류: expected=" + upload.nextSeq + ", actual=" + chunk.getSeq());
+                }
+                upload.nextSeq++;
+                upload.lastActivity = System.currentTimeMillis();
+                upload.append(chunk.getData());
+
+                if (!chunk.isLast()) {
+                    return Optional.empty();
+                }
+
+                upload.finishing = true;
+                String uploadId = chunk.getUploadId();
+                CompletableFuture<GroupChatMessageDTO> completed = upload.finish()
+                        .thenApply(url -> GroupChatMessageDTO.builder()
+                                .chatRoomId(upload.chatRoomId)
+                                .senderId(upload.senderId)
+                                .messageType(upload.messageType)
+                                .message(url)
+                                .sentAt(OffsetDateTime.now(ZoneId.of("Asia/Seoul")).toString())
+                                .build())
+                        .whenComplete((message, e) -> {
+                            if (e != null) {
+                                cancel(uploadId, upload);
+                            } else {
+                                uploads.remove(uploadId, upload);
+                            }
+                        });
+                return Optional.of(completed);
+            } catch (RuntimeException e) {
+                cancel(chunk.getUploadId(), upload);
+                throw e;
+            }
+        }
+    }
+
+    // 클라이언트가 중간에 끊긴 업로드는 저장소 쪽 파트까지 정리
+    @Scheduled(fixedDelayString = "${chat.attachment.idle-timeout-ms:60000}")
+    public void abortIdleUploads() {
+        long deadline = System.currentTimeMillis() - properties.getIdleTimeoutMs();
+        Iterator<Map.Entry<String, PendingUpload>> it = uploads.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, PendingUpload> entry = it.next();
+            PendingUpload upload = entry.getValue();
+            synchronized (upload) {
+                // 마지막 청크까지 받은 업로드는 완료 결과에서 정리
+                if (!upload.finishing && upload.lastActivity < deadline) {
+                    log.warn("첨부파일 업로드 시간 초과로 중단: {}", entry.getKey());
+                    cancel(entry.getKey(), upload);
+                }
+            }
+        }
+    }
+
+    public int pendingCount() {
+        return uploads.size();
+    }
+
+    private PendingUpload begin(Integer roomId, Integer userId, AttachmentChunkDTO chunk) {
+        MessageType type = chunk.getAttachmentType();
+        if (type != MessageType.FILE && type != MessageType.IMAGE) {
+            throw new IllegalArgumentException("attachmentType 은 FILE 또는 IMAGE 여야 합니다.");
+        }
+        // 접속한 방에만 올릴 수 있음 (핸드셰이크 때 확인된 방)
+        if (roomId == null || (chunk.getChatRoomId() != null && !roomId.equals(chunk.getChatRoomId()))) {
+            throw new IllegalArgumentException("접속한 채팅방이 아닙니다: " + chunk.getChatRoomId());
+        }
+
+        String key = "chat/" + roomId + "/" + UUID.randomUUID() + "-" + safeFileName(chunk.getFileName());
+        String contentType = chunk.getContentType() != null ? chunk.getContentType() : "application/octet-stream";
+        PendingUpload upload = new PendingUpload(roomId, userId, type);
+
+        // 업로드마다 파트 버퍼를 잡으므로 동시에 진행할 수 있는 업로드 수를 사용자별/전체로 제한
+        synchronized (uploads) {
+            if (uploads.size() >= properties.getMaxPendingUploads()) {
+                throw new IllegalStateException("진행 중인 첨부파일 업로드가 너무 많습니다.");
+            }
+            long mine = uploads.values().stream().filter(u -> u.senderId.equals(userId)).count();
+            if (mine >= properties.getMaxPendingUploadsPerUser()) {
+                throw new IllegalStateException("동시에 올릴 수 있는 첨부파일 수를 넘었습니다.");
+            }
+            // 같은 uploadId 로 다시 시작하면 기존 업로드는 그대로 두고 거절
+            if (uploads.putIfAbsent(chunk.getUploadId(), upload) != null) {
+                throw new IllegalStateException("이미 진행 중인 업로드입니다: " + chunk.getUploadId());
+            }
+        }
+        upload.start(key, contentType);
+        return upload;
+    }
+
+    // 올리는 중인 파트가 끝난 뒤 저장소 쪽 업로드를 중단
+    private void cancel(String uploadId, PendingUpload upload) {
+        if (!uploads.remove(uploadId, upload)) {
+            return;
+        }
+        upload.inFlight.whenCompleteAsync((v, e) -> {
+            if (upload.target == null) return;
+            try {
+                upload.target.abort();
+            } catch (RuntimeException abortError) {
+                log.error("첨부파일 업로드 중단 실패 {}: {}", uploadId, abortError.getMessage());
+            }
+        }, uploadExecutor);
+    }
+
+    // 경로 구분자 등은 지우고 파일 이름만 남김
+    private static String safeFileName(String fileName) {
+        if (fileName == null || fileName.isBlank()) return "file";
+        String name = fileName.replaceAll("[\\\\/:*?\"<>|\\s]+", "_");
+        return name.length() > 100 ? name.substring(name.length() - 100) : name;
+    }
+
+    private final class PendingUpload {
+        private final Integer chatRoomId;
+        private final Integer senderId;
+        private final MessageType messageType;
+        // 업로드 쓰레드에서 채움 (inFlight 완료 뒤에만 읽음)
+        private volatile AttachmentStorage.Upload target;
+        // 저장소에 마지막으로 넘긴 작업 (시작 또는 파트) - 업로드마다 한 번에 하나씩 순서대로
+        private CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+        private int nextSeq;
+        private boolean finishing;
+        private long lastActivity = System.currentTimeMillis();
+        private long totalBytes;
+
+        // 파트 버퍼는 받은 만큼만 늘림 (작은 이미지에 5MB 를 미리 잡지 않도록)
+        private byte[] buffer = new byte[0];
+        private int buffered;
+        private int partNumber = 1;
+
+        private PendingUpload(Integer chatRoomId, Integer senderId, MessageType messageType) {
+            this.chatRoomId = chatRoomId;
+            this.senderId = senderId;
+            this.messageType = messageType;
+        }
+
+        private void start(String key, String contentType) {
+            inFlight = CompletableFuture.runAsync(() -> target = attachmentStorage.begin(key, contentType), uploadExecutor);
+        }
+
+        private void append(byte[] data) {
+            if (data == null || data.length == 0) return;
+
+            totalBytes += data.length;
+            if (totalBytes > properties.getMaxFileSize()) {
+                throw new IllegalStateException("첨부파일 최대 크기를 초과했습니다.");
+            }
+            if (buffered + data.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffered + data.length, Math.min(buffer.length * 2, properties.getPartSize())));
+            }
+            System.arraycopy(data, 0, buffer, buffered, data.length);
+            buffered += data.length;
+
+            if (buffered >= properties.getPartSize()) {
+                flushPart();
+            }
+        }
+
+        private CompletableFuture<String> finish() {
+            // 빈 파일이어도 파트가 하나는 있어야 업로드를 완료할 수 있음
+            if (buffered > 0 || partNumber == 1) {
+                flushPart();
+            }
+            return inFlight.thenApplyAsync(v -> target.complete(), uploadExecutor);
+        }
+
+        // 채운 버퍼를 업로드 쓰레드로 넘기고 새 버퍼에 이어 받음
+        // 이전 파트가 아직 올라가는 중이면 끝날 때까지 기다림 (클라이언트가 저장소보다 빠를 때의 배압)
+        private void flushPart() {
+            inFlight.join();
+            byte[] part = buffer;
+            int length = buffered;
+            int number = partNumber++;
+            inFlight = CompletableFuture.runAsync(() -> target.writePart(number, part, length), uploadExecutor);
+            buffer = new byte[0];
+            buffered = 0;
+        }
+    }
+}
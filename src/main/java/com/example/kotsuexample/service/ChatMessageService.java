@@ -1,42 +1,77 @@
 package com.example.kotsuexample.service;
 
+import com.example.kotsuexample.config.redis.ChatPresenceRegistry;
+import com.example.kotsuexample.config.redis.ChatStreamLog;
 import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.config.websocket.ChatSessionManager;
+import com.example.kotsuexample.config.websocket.ChatWireCodec;
+import com.example.kotsuexample.config.websocket.SessionChannel;
+import com.example.kotsuexample.dto.AttachmentChunkDTO;
 import com.example.kotsuexample.dto.ChatMessageDTO;
 import com.example.kotsuexample.dto.ChatReadEvent;
 import com.example.kotsuexample.dto.GroupChatMessageDTO;
+import com.example.kotsuexample.dto.SseNotificationDTO;
+import com.example.kotsuexample.dto.UserResponse;
 import com.example.kotsuexample.entity.*;
+import com.example.kotsuexample.entity.enums.ChatRoomType;
 import com.example.kotsuexample.entity.enums.MessageType;
+import com.example.kotsuexample.entity.enums.NotificationType;
 import com.example.kotsuexample.exception.StudyDataNotFoundException;
 import com.example.kotsuexample.repository.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 
 public class ChatMessageService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChatMessageRepository chatMessageRepository;
     private final ChatReadStatusRepository chatReadStatusRepository;
     private final ChatRoomMemberRepository chatRoomMemberRepository;
     private final ChatReadService chatReadService;
-    private final UserRepository userRepository;
     private final RedisPublisher redisPublisher;
     private final ChatRoomRepository chatRoomRepository;
     private final ObjectMapper objectMapper;
+    private final ChatRoomService chatRoomService;
+    private final UserService userService;
+    private final ReadWatermarkService readWatermarkService;
+    private final ChatMessageWriteBuffer chatMessageWriteBuffer;
+    private final ChatSessionManager chatSessionManager;
+    private final ChatPresenceRegistry chatPresenceRegistry;
+    private final SseService sseService;
+    private final ChatStreamLog chatStreamLog;
+    private final UnreadCounterService unreadCounterService;
+    private final ReadReceiptBuffer readReceiptBuffer;
+    private final ChatWireCodec chatWireCodec;
+    private final AttachmentUploadService attachmentUploadService;
+    private final EphemeralSignalService ephemeralSignalService;
 
-    public List<ChatMessageDTO> getChatMessagesWithReadStatus(Integer roomId, Integer myUserId) {
-        // 1. 메시지 전체 조회
-        List<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderBySentAtAsc(roomId);
+    public List<ChatMessageDTO> getChatMessagesWithReadStatus(Integer roomId, Integer myUserId,
+                                                              Integer before, Integer after, Integer size) {
+        // 1. 메시지 한 페이지 조회 (before/after 커서 기준)
+        List<ChatMessage> messages = findMessageWindow(roomId, before, after, size);
 
         // 2. 채팅방 멤버들 조회 (1:1 채팅 가정)
         List<Integer> members = chatRoomMemberRepository.findByChatRoomId(roomId)
@@ -69,7 +104,8 @@ public class ChatMessageService {
     }
 
     // 스터디방/그룹방: 메시지별 '읽지 않은 인원 수' 포함해서 반환
-    public List<GroupChatMessageDTO> getGroupMessagesWithUnreadCount(Integer chatRoomId, Integer userId) {
+    public List<GroupChatMessageDTO> getGroupMessagesWithUnreadCount(Integer chatRoomId, Integer userId,
+                                                                     Integer before, Integer after, Integer size) {
         // 1. 스터디룸 → 그룹 채팅방 id 얻기
         ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new StudyDataNotFoundException("채팅방이 존재하지 않습니다."));
@@ -79,16 +115,18 @@ public class ChatMessageService {
             throw new IllegalArgumentException("채팅방 멤버가 아닙니다.");
         }
 
-        // 3. 메시지 불러오기
-        List<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderBySentAtAsc(chatRoom.getId());
+        // 3. 메시지 한 페이지 불러오기
+        List<ChatMessage> messages = findMessageWindow(chatRoom.getId(), before, after, size);
 
         Set<Integer> senderIds = messages.stream().map(ChatMessage::getSenderId).collect(Collectors.toSet());
-        Map<Integer, User> userMap = userRepository.findAllById(senderIds)
-                .stream().collect(Collectors.toMap(User::getId, u -> u));
+        Map<Integer, UserResponse> userMap = userService.getSimpleUserInfos(senderIds);
+
+        // 멤버/읽음 시각은 한 번만 읽어서 정렬해 두고, 메시지마다 이진 탐색으로 미확인 인원 수 계산
+        RoomReadWatermarks watermarks = readWatermarkService.snapshot(chatRoom.getId());
 
         return messages.stream()
                 .map(msg -> {
-                    User sender = userMap.get(msg.getSenderId());
+                    UserResponse sender = userMap.get(msg.getSenderId());
                     return GroupChatMessageDTO.builder()
                             .id(msg.getId())
                             .chatRoomId(msg.getChatRoomId())
@@ -102,30 +140,246 @@ public class ChatMessageService {
                                             .atOffset(ZoneOffset.UTC)
                                             .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
                             )
-                            .unreadCount(chatReadService.getUnreadMemberCountForMessage(chatRoom.getId(), msg.getId()))
+                            .unreadCount(watermarks.unreadCount(msg.getSenderId(), msg.getSentAt()))
                             .messageId(msg.getId())
                             .build();
                 })
                 .toList();
     }
 
+    // 커서가 없으면 최신 페이지, before 면 그 이전 페이지, after 면 그 이후 페이지 (항상 오래된 순으로 반환)
+    private List<ChatMessage> findMessageWindow(Integer roomId, Integer before, Integer after, Integer size) {
+        // 아직 버퍼에 있는 이 방 메시지/읽음 시각까지 보이도록 먼저 저장
+        chatMessageWriteBuffer.flushRoom(roomId);
+        readReceiptBuffer.flushBeforeRead();
+
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        PageRequest page = PageRequest.of(0, pageSize);
+
+        if (after != null) {
+            return chatMessageRepository.findByChatRoomIdAndIdGreaterThanOrderByIdAsc(roomId, after, page);
+        }
+
+        List<ChatMessage> newestFirst = before != null
+                ? chatMessageRepository.findByChatRoomIdAndIdLessThanOrderByIdDesc(roomId, before, page)
+                : chatMessageRepository.findByChatRoomIdOrderByIdDesc(roomId, page);
+
+        List<ChatMessage> messages = new ArrayList<>(newestFirst);
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    // 웹소켓으로 받은 프레임을 이 노드에서 한 번만 저장하고, 완성된 DTO 를 Redis 로 발행
+    // (구독 노드들은 받은 페이로드를 그대로 브로드캐스트만 함)
+    // payload 는 JSON 텍스트 또는 CBOR 바이너리 - 받은 포맷 그대로 Redis 까지 전달
+    // userId 는 핸드셰이크 때 확인된 세션의 사용자 (휘발성 신호의 보낸 사람, 첨부파일 업로드 소유자)
+    public void handleIncomingMessage(String roomId, Integer userId, byte[] payload) throws IOException {
+        boolean cbor = ChatWireCodec.isCbor(payload);
+        // 프레임은 한 번만 파싱하고, messageType 을 보고 맞는 DTO 로 바꿈
+        JsonNode frame = chatWireCodec.readTree(payload);
+        if (MessageType.ATTACHMENT.name().equals(frame.path("messageType").asText())) {
+            handleAttachmentChunk(roomId, userId, chatWireCodec.convert(frame, AttachmentChunkDTO.class), cbor);
+            return;
+        }
+
+        GroupChatMessageDTO dto = chatWireCodec.convert(frame, GroupChatMessageDTO.class);
+        if (EphemeralSignalService.isEphemeral(dto.getMessageType())) {
+            // 입력 중/보고 있음 신호는 방 타입 조회나 저장 없이 Redis 로만 전파
+            // 보낸 사람은 프레임 값이 아니라 세션 사용자로 덮어씀 (다른 사람 이름으로 신호를 보내지 못하게)
+            dto.setSenderId(userId);
+            ephemeralSignalService.handle(roomId, dto, cbor);
+            return;
+        }
+        handleMessage(roomId, dto, cbor);
+    }
+
+    // 첨부파일 청크는 저장소로만 흘려보내고, 마지막 청크의 업로드가 끝나면 FILE/IMAGE 메시지로 바꿔 평소처럼 저장/발행
+    // (완료 처리는 업로드 쓰레드에서 이어짐 - 웹소켓 쓰레드는 저장소 응답을 기다리지 않음)
+    private void handleAttachmentChunk(String roomId, Integer userId, AttachmentChunkDTO chunk, boolean cbor) {
+        attachmentUploadService.accept(Integer.valueOf(roomId), userId, chunk)
+                .ifPresent(completed -> completed.whenComplete((dto, e) -> {
+                    if (e != null) {
+                        log.warn("첨부파일 업로드 실패 uploadId={}", chunk.getUploadId(), e);
+                        return;
+                    }
+                    try {
+                        handleMessage(roomId, dto, cbor);
+                    } catch (Exception publishError) {
+                        log.error("첨부파일 메시지 발행 실패 uploadId={}", chunk.getUploadId(), publishError);
+                    }
+                }));
+    }
+
+    private void handleMessage(String roomId, GroupChatMessageDTO dto, boolean cbor) throws IOException {
+        if (dto.getChatRoomId() == null) {
+            return;
+        }
+
+        ChatRoomType roomType = chatRoomService.getRoomType(dto.getChatRoomId());
+        GroupChatMessageDTO outbound = roomType == ChatRoomType.GROUP
+                ? prepareGroupMessage(dto)
+                : prepareSingleMessage(dto);
+        if (outbound == null) {
+            return;
+        }
+
+        publishToRoom(roomId, outbound, cbor);
+    }
+
+    // 한 번 직렬화해서 (설정 시) 방 스트림에 남기고 Pub/Sub 으로 전파
+    // 스트림은 재접속 시 그대로 내려줄 수 있도록 항상 JSON 으로 보관
+    private void publishToRoom(String roomId, GroupChatMessageDTO dto, boolean cbor) throws JsonProcessingException {
+        byte[] payload = chatWireCodec.write(dto, cbor);
+        if (chatStreamLog.isEnabled() && dto.getId() != null) {
+            chatStreamLog.append(roomId, dto.getId(), cbor ? chatWireCodec.write(dto, false) : payload);
+        }
+        redisPublisher.publish("chatroom:" + roomId, payload);
+    }
+
+    // 1:1 채팅 - 읽음 처리 또는 메시지 저장 후 id 를 채워서 반환
+    private GroupChatMessageDTO prepareSingleMessage(GroupChatMessageDTO dto) {
+        if (dto.getMessageType() == MessageType.READ) {
+            if (dto.getSenderId() == null) {
+                System.err.println("❌ senderId(userId)가 null임! -> 읽음 처리 불가");
+                return null;
+            }
+            LocalDateTime lastReadAt;
+            try {
+                lastReadAt = dto.getLastReadAt() != null
+                        ? OffsetDateTime.parse(dto.getLastReadAt()).toLocalDateTime()
+                        : LocalDateTime.now();
+            } catch (Exception e) {
+                System.err.println("❌ lastReadAt 파싱 실패: " + dto.getLastReadAt());
+                lastReadAt = LocalDateTime.now();
+            }
+
+            chatReadService.markChatAsRead(dto.getChatRoomId(), dto.getSenderId(), lastReadAt);
+            return dto;
+        }
+
+        ChatMessage chatMessage = saveMessage(dto);
+        dto.setId(chatMessage.getId());
+        notifyOfflineMembers(dto);
+        return dto;
+    }
+
+    // 1:1 채팅 - 어느 노드에서도 방에 접속해 있지 않은 상대에게 SSE 알림
+    // (방 채널은 세션이 있는 노드만 구독하므로, 메시지를 받은 노드에서 한 번만 보냄)
+    // 이 노드 세션을 먼저 보고, 없으면 클러스터 전체 접속 목록(chat:online:{roomId})으로 확인
+    private void notifyOfflineMembers(GroupChatMessageDTO dto) {
+        String roomId = String.valueOf(dto.getChatRoomId());
+        UserResponse sender = null;
+        for (Integer targetId : chatRoomService.getMemberIds(dto.getChatRoomId())) {
+            if (targetId.equals(dto.getSenderId())
+                    || chatSessionManager.isUserConnected(SessionChannel.CHAT, roomId, targetId)
+                    || chatPresenceRegistry.isPresent(roomId, targetId)) {
+                continue;
+            }
+            if (sender == null) {
+                sender = userService.getSimpleUserInfoById(dto.getSenderId());
+            }
+            SseNotificationDTO notification = SseNotificationDTO.builder()
+                    .type(NotificationType.CHAT)
+                    .sender(sender)
+                    .roomId(dto.getChatRoomId())
+                    .createdAt(LocalDateTime.now())
+                    .build();
+            sseService.send(targetId, NotificationType.CHAT, notification);
+        }
+    }
+
+    // 그룹(스터디) 채팅 - 바뀐 미확인 인원 수 또는 보낸 사람 정보까지 채운 DTO 반환
+    private GroupChatMessageDTO prepareGroupMessage(GroupChatMessageDTO dto) {
+        if (dto.getMessageType() == MessageType.READ) {
+            if (dto.getSenderId() == null || dto.getLastReadAt() == null || dto.getMessageId() == null) return null;
+
+            // 읽음 워터마크를 옮기고, 미확인 인원 수가 바뀐 메시지만 계산
+            chatMessageWriteBuffer.flushRoom(dto.getChatRoomId());
+            Map<Integer, Integer> unreadCounts = readWatermarkService.applyRead(
+                    dto.getChatRoomId(),
+                    dto.getSenderId(),
+                    parseKst(dto.getLastReadAt()),
+                    dto.getMessageId()
+            );
+
+            return GroupChatMessageDTO.builder()
+                    .messageType(MessageType.READ)
+                    .messageId(dto.getMessageId())
+                    .lastReadAt(dto.getLastReadAt())
+                    .chatRoomId(dto.getChatRoomId())
+                    .senderId(dto.getSenderId())
+                    .unreadCounts(unreadCounts) // ⬅️ 바뀐 메시지만 map 으로 내려줌!
+                    .build();
+        }
+
+        ChatMessage chatMessage = saveMessage(dto);
+
+        UserResponse sender = userService.getSimpleUserInfoById(dto.getSenderId());
+        // 아직 DB 에 없을 수 있으므로 메모리의 읽음 워터마크로 계산
+        int unreadCount = readWatermarkService.getWatermarks(dto.getChatRoomId())
+                .unreadCount(chatMessage.getSenderId(), chatMessage.getSentAt());
+
+        return GroupChatMessageDTO.builder()
+                .id(chatMessage.getId())
+                .chatRoomId(chatMessage.getChatRoomId())
+                .senderId(sender.getId())
+                .senderNickname(sender.getNickname())
+                .senderProfileImage(sender.getProfileImage())
+                .message(chatMessage.getMessage())
+                .messageType(chatMessage.getMessageType())
+                .sentAt(
+                        chatMessage.getSentAt()
+                                .atOffset(ZoneOffset.UTC)
+                                .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+                )
+                .unreadCount(unreadCount)
+                .build();
+    }
+
+    // id 만 발급받고 실제 INSERT 는 write-behind 버퍼가 배치로 수행
+    private ChatMessage saveMessage(GroupChatMessageDTO dto) {
+        ChatMessage chatMessage = chatMessageWriteBuffer.enqueue(
+                dto.getChatRoomId(),
+                dto.getSenderId(),
+                dto.getMessageType(),
+                dto.getMessage(),
+                parseKst(dto.getSentAt())
+        );
+        // 브로드캐스트 전에 올려야 상대가 이 메시지를 보고 보낸 읽음 처리보다 먼저 반영됨
+        unreadCounterService.onMessage(chatMessage.getChatRoomId(), chatMessage.getSenderId());
+        return chatMessage;
+    }
+
+    public static LocalDateTime parseKst(String sentAt) {
+        if (sentAt == null) return null;
+        try {
+            OffsetDateTime odt = OffsetDateTime.parse(sentAt);
+            return odt.atZoneSameInstant(ZoneId.of("Asia/Seoul")).toLocalDateTime();
+        } catch (Exception e) {
+            // fallback
+            return LocalDateTime.now();
+        }
+    }
+
     public void markMessagesAsRead(Integer roomId, Integer userId, LocalDateTime lastReadAt) throws JsonProcessingException {
         // 1. 읽음 상태 저장 (기존대로)
         chatReadService.markChatAsRead(roomId, userId, lastReadAt);
 
-        // 2. 마지막 메시지 ID 가져오기
-        Integer lastMessageId = chatMessageRepository.findTopByChatRoomIdOrderBySentAtDesc(roomId)
-                .map(ChatMessage::getId)
+        // 2. 마지막 메시지 가져오기
+        chatMessageWriteBuffer.flushRoom(roomId);
+        ChatMessage lastMessage = chatMessageRepository.findTopByChatRoomIdOrderBySentAtDesc(roomId)
                 .orElse(null);
 
-        if (lastMessageId != null) {
-            // 3. 해당 메시지의 미확인 인원 수 계산
-            int unreadCount = chatReadService.getUnreadMemberCountForMessage(roomId, lastMessageId);
+        if (lastMessage != null) {
+            // 3. 메모리의 읽음 워터마크로 미확인 인원 수 계산 (이 노드는 바로 반영, 다른 노드는 READ 이벤트로 반영)
+            RoomReadWatermarks watermarks = readWatermarkService.getWatermarks(roomId);
+            watermarks.update(userId, lastReadAt);
+            int unreadCount = watermarks.unreadCount(lastMessage.getSenderId(), lastMessage.getSentAt());
 
             // 4. 읽음 이벤트 객체 생성
             ChatReadEvent event = ChatReadEvent.builder()
                     .messageType(MessageType.READ)
-                    .messageId(lastMessageId)
+                    .messageId(lastMessage.getId())
                     .unreadCount(unreadCount)
                     .userId(userId)
                     .lastReadAt(lastReadAt.toString())
@@ -133,20 +387,34 @@ public class ChatMessageService {
                     .build();
 
             // 5. Redis Pub/Sub로 이벤트 전파
-            redisPublisher.publish("chatroom:" + roomId, objectMapper.writeValueAsString(event));
+            redisPublisher.publish("chatroom:" + roomId, objectMapper.writeValueAsBytes(event));
         }
     }
 
-    public void sendSystemMessageToGroup(Integer chatRoomId, String content) throws JsonProcessingException {
-        // senderId는 0 또는 null로(혹은 별도 SYSTEM 유저)
-        ChatMessage msg = ChatMessage.builder()
+    // 저장하지 않는 시스템 알림 (화상방 입장/퇴장 등) - 지금 방에 접속한 사람에게만 보이고
+    // 채팅 내역/미확인 수/재전송 스트림에는 남지 않음 (id 없음)
+    public void sendTransientSystemMessageToGroup(Integer chatRoomId, String content) throws JsonProcessingException {
+        GroupChatMessageDTO dto = GroupChatMessageDTO.builder()
                 .chatRoomId(chatRoomId)
-                .senderId(0) // 시스템
+                .senderId(0)
+                .senderNickname("SYSTEM")
                 .messageType(MessageType.SYSTEM)
                 .message(content)
-                .sentAt(LocalDateTime.now())
+                .sentAt(LocalDateTime.now().toString())
                 .build();
-        chatMessageRepository.save(msg);
+        redisPublisher.publish("chatroom:" + chatRoomId, chatWireCodec.write(dto, false));
+    }
+
+    public void sendSystemMessageToGroup(Integer chatRoomId, String content) throws JsonProcessingException {
+        // senderId는 0 또는 null로(혹은 별도 SYSTEM 유저)
+        ChatMessage msg = chatMessageWriteBuffer.enqueue(
+                chatRoomId,
+                0, // 시스템
+                MessageType.SYSTEM,
+                content,
+                LocalDateTime.now()
+        );
+        unreadCounterService.onMessage(chatRoomId, 0);
 
         // DTO로 변환해서 전송
         GroupChatMessageDTO dto = GroupChatMessageDTO.builder()
@@ -160,6 +428,6 @@ public class ChatMessageService {
                 .build();
 
         // Redis PubSub 브로드캐스트 (프론트에도 즉시 전파)
-        redisPublisher.publish("chatroom:" + chatRoomId, objectMapper.writeValueAsString(dto));
+        publishToRoom(String.valueOf(chatRoomId), dto, false);
     }
 }
@@ -0,0 +1,382 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.entity.ChatMessage;
+import com.example.kotsuexample.entity.enums.MessageType;
+import com.example.kotsuexample.exception.OperationNotAllowedException;
+import com.example.kotsuexample.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 채팅 메시지 write-behind 버퍼
+// id 는 Redis 시퀀스로 미리 발급해서 바로 브로드캐스트하고, DB 에는 여러 행을 한 번에 INSERT
+// 이미 브로드캐스트된 메시지라 버리지 않음 - DB 연결/타임아웃 오류는 백오프로 계속 재시도하고,
+// 행 데이터 자체가 잘못된 경우(제약 위반)만 dead-letter 로 보냄
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatMessageWriteBuffer {
+
+    private static final String ID_SEQUENCE_KEY = "chat:message:id";
+    // 데이터 문제로 저장할 수 없는 메시지는 이 로거로 남김 (별도 appender 로 모아서 수동 재적재)
+    private static final Logger DEAD_LETTER = LoggerFactory.getLogger("chat.write_behind.dead_letter");
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatMessageRepository chatMessageRepository;
+    private final MeterRegistry meterRegistry;
+    private final ChatRoomLastMessageProjection lastMessageProjection;
+    private final ChatSearchService chatSearchService;
+
+    @Value("${chat.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    // 저장되지 않은 메시지(대기 + 재시도 중) 최대 수
+    @Value("${chat.write-behind.capacity:10000}")
+    private int capacity;
+
+    // 가득 찼을 때 enqueue 가 자리를 기다리는 최대 시간
+    @Value("${chat.write-behind.enqueue-timeout-ms:2000}")
+    private long enqueueTimeoutMs;
+
+    @Value("${chat.write-behind.retry-initial-backoff-ms:100}")
+    private long retryInitialBackoffMs;
+
+    @Value("${chat.write-behind.retry-max-backoff-ms:5000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${chat.write-behind.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final BlockingQueue<ChatMessage> queue = new LinkedBlockingQueue<>();
+    // 저장되지 않은 메시지 수를 capacity 로 제한 (저장되거나 dead-letter 로 빠질 때 반환)
+    private Semaphore slots;
+    // 방별 저장 대기 메시지 수 (없는 방은 조회 전에 flush 할 필요 없음)
+    private final Map<Integer, Integer> pendingByRoom = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // 일시 오류로 저장하지 못한 행 (flushLock 안에서만 접근)
+    private final List<ChatMessage> retrying = new ArrayList<>();
+    private long retryAt;
+    private long backoffMs;
+
+    private Timer flushTimer;
+    private Counter flushedCounter;
+    private Counter retryCounter;
+    private Counter deadLetterCounter;
+
+    @PostConstruct
+    public void init() {
+        slots = new Semaphore(capacity);
+        initIdSequence();
+
+        Gauge.builder("chat.write_behind.queue.depth", slots, s -> capacity - s.availablePermits())
+                .description("DB 저장 대기 중인 채팅 메시지 수 (재시도 중 포함)")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("chat.write_behind.flush")
+                .description("채팅 메시지 배치 INSERT 소요 시간")
+                .register(meterRegistry);
+        flushedCounter = Counter.builder("chat.write_behind.flushed")
+                .description("DB 에 저장된 채팅 메시지 수")
+                .register(meterRegistry);
+        retryCounter = Counter.builder("chat.write_behind.retry")
+                .description("일시 오류로 재시도를 예약한 횟수")
+                .register(meterRegistry);
+        deadLetterCounter = Counter.builder("chat.write_behind.dead_letter")
+                .description("데이터 문제로 저장하지 못해 dead-letter 로그로 보낸 채팅 메시지 수")
+                .register(meterRegistry);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // id 를 발급해서 버퍼에 넣고, 저장될 메시지를 바로 반환
+    // sentAt 이 없으면 서버 시각으로 채움 (예전처럼 sentAt 없이 보낸 프레임도 받음)
+    public ChatMessage enqueue(Integer chatRoomId, Integer senderId, MessageType messageType, String message, LocalDateTime sentAt) {
+        // NOT NULL 컬럼을 미리 확인 (INSERT 단계에서 터지면 이미 브로드캐스트된 뒤라 되돌릴 수 없음)
+        if (chatRoomId == null || senderId == null || messageType == null || message == null) {
+            throw new OperationNotAllowedException("저장할 수 없는 메시지입니다.");
+        }
+
+        // DB 가 밀려 버퍼가 가득 차면 자리가 날 때까지 보내는 쪽을 잠깐 세움 (배압)
+        // 그래도 자리가 없으면 브로드캐스트 전에 거절 - 보낸 사람만 실패를 받고 메시지는 어디에도 나가지 않음
+        acquireSlot();
+        ChatMessage chatMessage;
+        try {
+            chatMessage = ChatMessage.builder()
+                    .id(nextId())
+                    .chatRoomId(chatRoomId)
+                    .senderId(senderId)
+                    .messageType(messageType)
+                    .message(message)
+                    .sentAt(sentAt != null ? sentAt : LocalDateTime.now())
+                    .build();
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+
+        pendingByRoom.merge(chatRoomId, 1, Integer::sum);
+        queue.add(chatMessage);
+        if (queue.size() >= batchSize) {
+            flusher.execute(this::flushQuietly);
+        }
+        return chatMessage;
+    }
+
+    // 대기 중인 메시지를 모두 DB 에 저장 (백그라운드 flusher / 종료 시)
+    // 재시도 대기 중이거나 재시도가 다시 실패하면 새 배치도 보내지 않음 (순서대로 밀려 있게 둠)
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (!retryIfDue()) return;
+            List<ChatMessage> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                if (!persist(batch)) return;
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void flushRoom(Integer chatRoomId) {
+        flushRooms(Set.of(chatRoomId));
+    }
+
+    // 조회 직전 read-after-write 보장용 - 해당 방들에 대기 중인 메시지만 저장
+    // 대기 중인 메시지가 없으면 락도 잡지 않고, DB 장애로 재시도 대기 중이면 기다리지 않고 저장된 만큼만 조회
+    public void flushRooms(Collection<Integer> chatRoomIds) {
+        if (chatRoomIds.stream().noneMatch(pendingByRoom::containsKey)) return;
+
+        Set<Integer> roomIds = new HashSet<>(chatRoomIds);
+        flushLock.lock();
+        try {
+            if (!retryIfDue()) return;
+            List<ChatMessage> rows = new ArrayList<>();
+            for (Iterator<ChatMessage> it = queue.iterator(); it.hasNext(); ) {
+                ChatMessage m = it.next();
+                if (roomIds.contains(m.getChatRoomId())) {
+                    rows.add(m);
+                    it.remove();
+                }
+            }
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, rows.size());
+                if (!persist(rows.subList(from, to))) {
+                    // 남은 행은 다시 대기열로 (재시도가 끝난 뒤 flusher 가 저장)
+                    queue.addAll(rows.subList(to, rows.size()));
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // 종료 전에 남은 메시지를 최대한 저장하고, 끝내 저장하지 못한 메시지는 dead-letter 로 남김
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+            long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+            while (slots.availablePermits() < capacity && System.currentTimeMillis() < deadline) {
+                flushQuietly();
+                if (slots.availablePermits() < capacity) {
+                    Thread.sleep(Math.max(flushIntervalMs, backoffMs));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flushLock.lock();
+        try {
+            List<ChatMessage> unsaved = new ArrayList<>(retrying);
+            retrying.clear();
+            queue.drainTo(unsaved);
+            for (ChatMessage m : unsaved) {
+                deadLetter(m, "shutdown");
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("채팅 메시지 flush 실패: {}", e.getMessage());
+        }
+    }
+
+    private void acquireSlot() {
+        try {
+            if (slots.tryAcquire(enqueueTimeoutMs, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("채팅 메시지 저장 대기열이 가득 참 (capacity={})", capacity);
+        throw new OperationNotAllowedException("메시지 저장이 밀려 있습니다. 잠시 후 다시 시도해 주세요.");
+    }
+
+    // 백오프가 지났으면 재시도 중인 행부터 저장 - 밀린 행이 없거나 저장에 성공하면 true
+    private boolean retryIfDue() {
+        if (retrying.isEmpty()) return true;
+        if (System.currentTimeMillis() < retryAt) return false;
+
+        List<ChatMessage> rows = new ArrayList<>(retrying);
+        retrying.clear();
+        if (!persist(rows)) return false;
+        backoffMs = 0;
+        return true;
+    }
+
+    // 저장(또는 dead-letter)까지 끝나면 true
+    // 연결/타임아웃 같은 일시 오류면 남은 행을 retrying 에 두고 false
+    private boolean persist(List<ChatMessage> batch) {
+        try {
+            insertBatch(batch);
+        } catch (DataIntegrityViolationException e) {
+            // 배치 안의 특정 행 데이터 문제 → 한 행씩 넣어서 문제 행만 골라냄
+            log.warn("채팅 메시지 배치 저장 실패, 한 행씩 다시 시도: {}", e.getMessage());
+            return insertOneByOne(batch);
+        } catch (RuntimeException e) {
+            return deferRetry(batch, e);
+        }
+        batch.forEach(this::release);
+        return true;
+    }
+
+    private boolean insertOneByOne(List<ChatMessage> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            ChatMessage m = batch.get(i);
+            try {
+                insertBatch(List.of(m));
+            } catch (DuplicateKeyException e) {
+                // id 는 미리 발급되므로, 타임아웃 뒤 재시도 등으로 이미 저장된 행
+                log.info("이미 저장된 채팅 메시지 id={}", m.getId());
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(m, e.getMessage());
+                continue;
+            } catch (RuntimeException e) {
+                return deferRetry(batch.subList(i, batch.size()), e);
+            }
+            release(m);
+        }
+        return true;
+    }
+
+    private boolean deferRetry(List<ChatMessage> rows, RuntimeException e) {
+        retrying.addAll(rows);
+        backoffMs = backoffMs == 0 ? retryInitialBackoffMs : Math.min(backoffMs * 2, retryMaxBackoffMs);
+        retryAt = System.currentTimeMillis() + backoffMs;
+        retryCounter.increment();
+        log.warn("채팅 메시지 {}건 저장 실패, {}ms 뒤 다시 시도: {}", rows.size(), backoffMs, e.getMessage());
+        return false;
+    }
+
+    private void deadLetter(ChatMessage m, String cause) {
+        deadLetterCounter.increment();
+        DEAD_LETTER.error("id={} chatRoomId={} senderId={} messageType={} sentAt={} message={} cause={}",
+                m.getId(), m.getChatRoomId(), m.getSenderId(), m.getMessageType(),
+                m.getSentAt(), m.getMessage(), cause);
+        release(m);
+    }
+
+    // 저장되었거나 dead-letter 로 빠진 행의 자리를 돌려줌
+    private void release(ChatMessage m) {
+        pendingByRoom.computeIfPresent(m.getChatRoomId(), (roomId, count) -> count > 1 ? count - 1 : null);
+        slots.release();
+    }
+
+    private void insertBatch(List<ChatMessage> batch) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO chat_messages (id, chat_room_id, sender_id, message_type, message, sent_at) VALUES ");
+        Object[] args = new Object[batch.size() * 6];
+        int i = 0;
+        for (ChatMessage m : batch) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+            args[i++] = m.getId();
+            args[i++] = m.getChatRoomId();
+            args[i++] = m.getSenderId();
+            args[i++] = m.getMessageType().name();
+            args[i++] = m.getMessage();
+            args[i++] = m.getSentAt();
+        }
+
+        flushTimer.record(() -> {
+            jdbcTemplate.update(sql.toString(), args);
+        });
+        flushedCounter.increment(batch.size());
+
+        // 메시지는 이미 저장됐으므로 여기서 실패해도 배치를 재시도하지 않음 (실패한 방은 projection 이 주기적으로 chat_messages 에서 다시 맞춤)
+        try {
+            lastMessageProjection.apply(batch);
+        } catch (RuntimeException e) {
+            log.error("마지막 메시지 갱신 실패: {}", e.getMessage());
+        }
+        try {
+            chatSearchService.onPersisted(batch);
+        } catch (RuntimeException e) {
+            log.error("검색 색인 갱신 실패: {}", e.getMessage());
+        }
+    }
+
+    private Integer nextId() {
+        Long id = redisTemplate.opsForValue().increment(ID_SEQUENCE_KEY);
+        return id.intValue();
+    }
+
+    // Redis 시퀀스를 DB 의 최대 id 이상으로 맞춤 (Redis 초기화/유실 대비)
+    private void initIdSequence() {
+        long maxId = chatMessageRepository.findMaxId();
+        redisTemplate.opsForValue().setIfAbsent(ID_SEQUENCE_KEY, String.valueOf(maxId));
+
+        String current = redisTemplate.opsForValue().get(ID_SEQUENCE_KEY);
+        long currentId = current != null ? Long.parseLong(current) : 0L;
+        if (currentId < maxId) {
+            redisTemplate.opsForValue().increment(ID_SEQUENCE_KEY, maxId - currentId);
+        }
+    }
+}
@@ -8,137 +8,149 @@ import com.example.kotsuexample.exception.StudyDataNotFoundException;
 import com.example.kotsuexample.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ChatReadService {
 
-    private final ChatReadStatusRepository chatReadStatusRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final ChatRoomMemberRepository chatRoomMemberRepository;
     private final ChatRoomRepository chatRoomRepository;
     private final StudyRoomRepository studyRoomRepository;
     private final UserService userService;
+    private final ChatRoomLastMessageRepository chatRoomLastMessageRepository;
+    private final ChatMessageWriteBuffer chatMessageWriteBuffer;
+    private final UnreadCounterService unreadCounterService;
+    private final ReadReceiptBuffer readReceiptBuffer;
 
-    // 읽음 처리
-    @Transactional
+    // 읽음 처리 - 바로 DB 에 쓰지 않고 버퍼에서 (방, 유저)별 최신 시각으로 합쳐서 주기적으로 저장
     public void markChatAsRead(Integer roomId, Integer userId, LocalDateTime lastReadAt) {
-        ChatReadStatus status = chatReadStatusRepository
-                .findByChatRoomIdAndUserId(roomId, userId)
-                .orElse(ChatReadStatus.builder()
-                        .chatRoomId(roomId)
-                        .userId(userId)
-                        .build());
-
-        status.updateLastReadAt(lastReadAt);
-        chatReadStatusRepository.save(status);
+        readReceiptBuffer.record(roomId, userId, lastReadAt);
+        unreadCounterService.markRead(roomId, userId, lastReadAt);
     }
 
-    // 미확인 메시지 수 조회
+    // 미확인 메시지 수 조회 (Redis 카운터, 없으면 DB 에서 한 번 계산해서 채움)
     public int getUnreadCount(Integer roomId, Integer userId) {
-        Optional<LocalDateTime> lastReadOpt = chatReadStatusRepository
-                .findByChatRoomIdAndUserId(roomId, userId)
-                .map(ChatReadStatus::getLastReadAt);
-
-        if (lastReadOpt.isPresent()) {
-            // 기존처럼 마지막 읽은 시각 이후 메시지 수 카운트
-            return chatMessageRepository.countByChatRoomIdAndSentAtAfterAndSenderIdNot(
-                    roomId, lastReadOpt.get(), userId
-            );
-        } else {
-            // 한 번도 읽지 않은 경우 → 내가 보낸 것 빼고 전부 unread
-            return chatMessageRepository.countByChatRoomIdAndSenderIdNot(
-                    roomId, userId
-            );
-        }
+        return unreadCounterService.get(roomId, userId);
     }
 
     public ChatRoomSummary getChatRoomSummary(Integer chatRoomId, Integer userId) {
+        chatMessageWriteBuffer.flushRoom(chatRoomId);
         int unread = getUnreadCount(chatRoomId, userId);
-        Optional<ChatMessage> lastMessage = chatMessageRepository.findTopByChatRoomIdOrderBySentAtDesc(chatRoomId);
+        Optional<ChatRoomLastMessage> lastMessage = chatRoomLastMessageRepository.findById(chatRoomId);
 
         ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new StudyDataNotFoundException("채팅방이 존재하지 않습니다."));
 
         List<Integer> memberIds = chatRoomMemberRepository.findByChatRoomId(chatRoomId).stream()
                 .map(ChatRoomMember::getUserId)
-                .filter(id -> !id.equals(userId))
                 .toList();
 
-        List<UserResponse> otherUsers;
-        if (memberIds.isEmpty()) {
-            UserResponse self = userService.getSimpleUserInfoById(userId);
-            otherUsers = List.of(self);
-        } else if (memberIds.size() == 1) {
-            UserResponse other = userService.getSimpleUserInfoById(memberIds.get(0));
-            otherUsers = List.of(other);
-        } else {
-            otherUsers = memberIds.stream()
-                    .map(userService::getSimpleUserInfoById)
-                    .toList();
-        }
+        Set<Integer> userIds = new HashSet<>(memberIds);
+        userIds.add(userId);
+        Map<Integer, UserResponse> users = userService.getSimpleUserInfos(userIds);
 
         // GROUP일 경우 스터디 정보 조회
+        StudyRoom studyRoom = null;
+        if (chatRoom.getType() == ChatRoomType.GROUP && chatRoom.getStudyRoomId() != null) {
+            studyRoom = studyRoomRepository.findById(chatRoom.getStudyRoomId())
+                    .orElseThrow(() -> new StudyDataNotFoundException("스터디룸이 존재하지 않습니다."));
+        }
+
+        return toSummary(chatRoom, userId, unread, lastMessage.orElse(null), memberIds, users, studyRoom);
+    }
+
+    // 채팅 목록: 방 개수와 상관없이 고정된 횟수의 쿼리로 조회
+    // (멤버십, 방, 마지막 메시지, 방 멤버, 유저, 스터디룸 - 각각 한 번씩, 미확인 수는 Redis hash 한 번)
+    public List<ChatRoomSummary> getAllChatRoomSummaries(Integer userId) {
+        List<Integer> roomIds = chatRoomMemberRepository.findByUserId(userId).stream()
+                .map(ChatRoomMember::getChatRoomId)
+                .toList();
+        if (roomIds.isEmpty()) return List.of();
+        chatMessageWriteBuffer.flushRooms(roomIds);
+
+        Map<Integer, ChatRoom> rooms = chatRoomRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(ChatRoom::getId, room -> room));
+        Map<Integer, ChatRoomLastMessage> lastMessages = chatRoomLastMessageRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(ChatRoomLastMessage::getChatRoomId, last -> last));
+
+        Map<Integer, List<Integer>> membersByRoom = chatRoomMemberRepository.findByChatRoomIdIn(roomIds).stream()
+                .collect(Collectors.groupingBy(ChatRoomMember::getChatRoomId,
+                        Collectors.mapping(ChatRoomMember::getUserId, Collectors.toList())));
+
+        Set<Integer> userIds = new HashSet<>();
+        userIds.add(userId);
+        membersByRoom.values().forEach(userIds::addAll);
+        Map<Integer, UserResponse> users = userService.getSimpleUserInfos(userIds);
+
+        List<Integer> studyRoomIds = rooms.values().stream()
+                .filter(room -> room.getType() == ChatRoomType.GROUP && room.getStudyRoomId() != null)
+                .map(ChatRoom::getStudyRoomId)
+                .toList();
+        Map<Integer, StudyRoom> studyRooms = studyRoomIds.isEmpty()
+                ? Map.of()
+                : studyRoomRepository.findAllById(studyRoomIds).stream()
+                        .collect(Collectors.toMap(StudyRoom::getId, studyRoom -> studyRoom));
+
+        Map<Integer, Integer> unreadByRoom = unreadCounterService.getAll(userId);
+
+        List<ChatRoomSummary> summaries = new ArrayList<>(roomIds.size());
+        for (Integer roomId : roomIds) {
+            ChatRoom chatRoom = rooms.get(roomId);
+            if (chatRoom == null) continue;
+
+            StudyRoom studyRoom = chatRoom.getStudyRoomId() != null ? studyRooms.get(chatRoom.getStudyRoomId()) : null;
+            summaries.add(toSummary(
+                    chatRoom,
+                    userId,
+                    unreadByRoom.getOrDefault(roomId, 0),
+                    lastMessages.get(roomId),
+                    membersByRoom.getOrDefault(roomId, List.of()),
+                    users,
+                    studyRoom
+            ));
+        }
+        return summaries;
+    }
+
+    private ChatRoomSummary toSummary(ChatRoom chatRoom, Integer userId, int unread, ChatRoomLastMessage lastMessage,
+                                      List<Integer> memberIds, Map<Integer, UserResponse> users, StudyRoom studyRoom) {
+        List<UserResponse> otherUsers = memberIds.stream()
+                .filter(id -> !id.equals(userId))
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+        // 혼자 남은 방이면 본인 정보
+        if (otherUsers.isEmpty() && users.containsKey(userId)) {
+            otherUsers = List.of(users.get(userId));
+        }
+
         String studyRoomName = null;
         String studyRoomImageUrl = null;
-        if (chatRoom.getType() == ChatRoomType.GROUP) {
-            if (chatRoom.getStudyRoomId() != null) {
-                StudyRoom studyRoom = studyRoomRepository.findById(chatRoom.getStudyRoomId())
-                        .orElseThrow(() -> new StudyDataNotFoundException("스터디룸이 존재하지 않습니다."));
-                studyRoomName = studyRoom.getName();
-                studyRoomImageUrl = studyRoom.getImageUrl(); // 이 필드가 StudyRoom 엔티티에 있어야 함
-            }
+        if (chatRoom.getType() == ChatRoomType.GROUP && studyRoom != null) {
+            studyRoomName = studyRoom.getName();
+            studyRoomImageUrl = studyRoom.getImageUrl();
         }
 
         return ChatRoomSummary.builder()
-                .roomId(chatRoomId)
+                .roomId(chatRoom.getId())
                 .unreadCount(unread)
-                .lastMessage(lastMessage.map(ChatMessage::getMessage).orElse(""))
-                .lastMessageAt(lastMessage.map(ChatMessage::getSentAt).orElse(null))
+                .lastMessage(lastMessage != null ? lastMessage.getMessage() : "")
+                .lastMessageAt(lastMessage != null ? lastMessage.getSentAt() : null)
                 .otherUsers(otherUsers)
                 .roomType(chatRoom.getType())
                 .studyRoomName(studyRoomName)
                 .studyRoomImageUrl(studyRoomImageUrl)
                 .build();
     }
-
-    public List<ChatRoomSummary> getAllChatRoomSummaries(Integer userId) {
-        return chatRoomMemberRepository.findByUserId(userId).stream()
-                .map(member -> getChatRoomSummary(member.getChatRoomId(), userId))
-                .toList();
-    }
-
-    public int getUnreadMemberCountForMessage(Integer roomId, Integer messageId) {
-        // 1. 메시지 조회
-        ChatMessage message = chatMessageRepository.findById(messageId)
-                .orElseThrow(() -> new RuntimeException("메시지를 찾을 수 없습니다."));
-
-        // 2. 채팅방 모든 멤버 조회
-        List<ChatRoomMember> members = chatRoomMemberRepository.findByChatRoomId(roomId);
-
-        // 3. 각 멤버의 읽음 정보 조회 (Map<userId, lastReadAt>)
-        Map<Integer, LocalDateTime> lastReadMap = chatReadStatusRepository
-                .findByChatRoomId(roomId).stream()
-                .collect(Collectors.toMap(ChatReadStatus::getUserId, ChatReadStatus::getLastReadAt));
-
-        int unreadCount = 0;
-        for (ChatRoomMember member : members) {
-            Integer userId = member.getUserId();
-            if (userId.equals(message.getSenderId())) continue; // 본인은 제외
-
-            LocalDateTime lastReadAt = lastReadMap.get(userId);
-            // lastReadAt이 없거나, 메시지보다 이전이면 아직 안 읽음
-            if (lastReadAt == null || lastReadAt.isBefore(message.getSentAt())) {
-                unreadCount++;
-            }
-        }
-        return unreadCount;
-    }
 }
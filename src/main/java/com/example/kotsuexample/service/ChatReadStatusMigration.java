@@ -0,0 +1,71 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.repository.ChatReadStatusRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// chat_read_status 의 (chat_room_id, user_id) unique key 보장
+// ReadReceiptBuffer 의 INSERT ... ON DUPLICATE KEY UPDATE 는 이 키가 없으면 중복 행을 계속 쌓음
+// ddl-auto=update 는 이미 중복 행이 있으면 키 생성에 조용히 실패하므로, 시작할 때 직접 중복을 합치고 키를 만든 뒤
+// 그래도 없으면 애플리케이션을 띄우지 않음
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatReadStatusMigration {
+
+    static final String UNIQUE_KEY = "uk_chat_read_status_room_user";
+
+    private static final String INDEX_EXISTS_SQL = """
+            SELECT COUNT(*) FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'chat_read_status' AND index_name = ?
+            """;
+
+    // (방, 유저)별로 가장 작은 id 행에 가장 늦은 읽음 시각을 모음
+    private static final String MERGE_DUPLICATES_SQL = """
+            UPDATE chat_read_status s
+            JOIN (
+                SELECT chat_room_id, user_id, MIN(id) AS keep_id, MAX(last_read_at) AS last_read_at
+                FROM chat_read_status
+                GROUP BY chat_room_id, user_id
+                HAVING COUNT(*) > 1
+            ) d ON s.id = d.keep_id
+            SET s.last_read_at = d.last_read_at
+            """;
+
+    // 남길 행보다 id 가 큰 중복 행 삭제
+    private static final String DELETE_DUPLICATES_SQL = """
+            DELETE s FROM chat_read_status s
+            JOIN chat_read_status k
+              ON k.chat_room_id = s.chat_room_id AND k.user_id = s.user_id AND k.id < s.id
+            """;
+
+    private static final String ADD_UNIQUE_KEY_SQL =
+            "ALTER TABLE chat_read_status ADD UNIQUE KEY " + UNIQUE_KEY + " (chat_room_id, user_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    // 테이블(ddl-auto)이 먼저 만들어지도록 JPA 쪽 빈에 의존
+    private final ChatReadStatusRepository chatReadStatusRepository;
+
+    @PostConstruct
+    public void migrate() {
+        if (hasUniqueKey()) return;
+
+        log.warn("chat_read_status 에 {} 가 없음 - 중복 행을 합치고 키를 추가", UNIQUE_KEY);
+        int merged = jdbcTemplate.update(MERGE_DUPLICATES_SQL);
+        int deleted = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+        jdbcTemplate.execute(ADD_UNIQUE_KEY_SQL);
+        log.info("chat_read_status 중복 정리 완료 (merged={}, deleted={})", merged, deleted);
+
+        if (!hasUniqueKey()) {
+            throw new IllegalStateException("chat_read_status 에 " + UNIQUE_KEY + " 를 만들지 못했습니다.");
+        }
+    }
+
+    private boolean hasUniqueKey() {
+        Integer count = jdbcTemplate.queryForObject(INDEX_EXISTS_SQL, Integer.class, UNIQUE_KEY);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.entity.ChatMessage;
+import com.example.kotsuexample.repository.ChatRoomLastMessageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// chat_room_last_message 갱신 (메시지 배치 INSERT 직후 호출)
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatRoomLastMessageProjection {
+
+    // message_id 가 더 클 때만 덮어씀 → 배치 순서가 뒤바뀌어도 최신 메시지 유지
+    // (MySQL 은 왼쪽부터 대입하므로 message_id 는 마지막에 갱신)
+    private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE"
+            + " sender_id = IF(VALUES(message_id) > message_id, VALUES(sender_id), sender_id),"
+            + " message_type = IF(VALUES(message_id) > message_id, VALUES(message_type), message_type),"
+            + " message = IF(VALUES(message_id) > message_id, VALUES(message), message),"
+            + " sent_at = IF(VALUES(message_id) > message_id, VALUES(sent_at), sent_at),"
+            + " message_id = GREATEST(message_id, VALUES(message_id))";
+
+    // chat_messages 의 방별 MAX(id) 로 다시 맞춤 (빈 방은 채우고, 뒤처진 방은 더 큰 message_id 로 갱신)
+    // SELECT 쪽 컬럼 이름을 바꿔 둬야 UPDATE 절의 컬럼이 chat_room_last_message 로만 해석됨
+    private static final String REPAIR_SQL = """
+            INSERT INTO chat_room_last_message (chat_room_id, message_id, sender_id, message_type, message, sent_at)
+            SELECT latest.room_id, latest.last_id, latest.last_sender_id, latest.last_type, latest.last_message, latest.last_sent_at
+            FROM (
+                SELECT m.chat_room_id AS room_id, m.id AS last_id, m.sender_id AS last_sender_id,
+                       m.message_type AS last_type, m.message AS last_message, m.sent_at AS last_sent_at
+                FROM chat_messages m
+                JOIN (SELECT chat_room_id, MAX(id) AS id FROM chat_messages %s GROUP BY chat_room_id) last_message
+                  ON last_message.id = m.id
+            ) latest
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    // 스키마(ddl-auto)가 먼저 만들어지도록 JPA 쪽 빈에 의존
+    private final ChatRoomLastMessageRepository chatRoomLastMessageRepository;
+
+    // 기동할 때마다 백그라운드에서 방 id 구간별로 나눠 전체를 다시 맞춤 (upsert 라 이미 맞는 방은 그대로)
+    // 테이블을 처음 도입한 뒤 기동 전에 쌓인 메시지나, 이전 프로세스가 보정하지 못하고 죽은 방을 채움
+    @Value("${chat.last-message.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    // 한 번의 INSERT ... SELECT 가 훑는 방 id 구간 크기
+    @Value("${chat.last-message.backfill-batch-rooms:500}")
+    private int backfillBatchRooms;
+
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "chat-last-message-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // apply 가 실패한 방 (다음 repair 주기에 chat_messages 기준으로 다시 맞춤)
+    private final Set<Integer> staleRooms = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (!backfillOnStartup) return;
+        backfillExecutor.execute(this::backfill);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    // 방 id 구간마다 짧은 문장 하나씩 - 전체 GROUP BY 한 방으로 chat_messages 를 오래 잡지 않음
+    void backfill() {
+        Integer maxRoomId = jdbcTemplate.queryForObject("SELECT MAX(chat_room_id) FROM chat_messages", Integer.class);
+        if (maxRoomId == null) return;
+
+        String sql = String.format(REPAIR_SQL, "WHERE chat_room_id > ? AND chat_room_id <= ?") + UPSERT_SUFFIX;
+        long rows = 0;
+        for (int from = 0; from < maxRoomId; from += backfillBatchRooms) {
+            if (Thread.currentThread().isInterrupted()) return;
+            try {
+                rows += jdbcTemplate.update(sql, from, from + backfillBatchRooms);
+            } catch (Exception e) {
+                log.error("chat_room_last_message 보정 실패 (방 id {} ~ {}): {}", from + 1, from + backfillBatchRooms, e.getMessage());
+            }
+        }
+        log.info("chat_room_last_message 전체 보정 완료 (affected rows={})", rows);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.last-message.repair-interval-ms:30000}")
+    public void repairStaleRooms() {
+        if (staleRooms.isEmpty()) return;
+
+        List<Integer> roomIds = new ArrayList<>(staleRooms);
+        staleRooms.removeAll(roomIds);
+        try {
+            String in = String.join(", ", Collections.nCopies(roomIds.size(), "?"));
+            jdbcTemplate.update(String.format(REPAIR_SQL, "WHERE chat_room_id IN (" + in + ")") + UPSERT_SUFFIX,
+                    roomIds.toArray());
+            log.info("chat_room_last_message 방 {}개 보정", roomIds.size());
+        } catch (Exception e) {
+            staleRooms.addAll(roomIds);
+            log.error("chat_room_last_message 보정 실패 (다음 주기에 재시도): {}", e.getMessage());
+        }
+    }
+
+    // 배치에서 방별 마지막 메시지만 골라 한 번의 INSERT ... ON DUPLICATE KEY UPDATE 로 반영
+    // 실패하면 해당 방들을 표시해 두고 repairStaleRooms 가 chat_messages 에서 다시 맞춤
+    public void apply(List<ChatMessage> batch) {
+        Map<Integer, ChatMessage> lastByRoom = new LinkedHashMap<>();
+        for (ChatMessage m : batch) {
+            lastByRoom.merge(m.getChatRoomId(), m, (a, b) -> a.getId() >= b.getId() ? a : b);
+        }
+        if (lastByRoom.isEmpty()) return;
+
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO chat_room_last_message (chat_room_id, message_id, sender_id, message_type, message, sent_at) VALUES ");
+        Object[] args = new Object[lastByRoom.size() * 6];
+        int i = 0;
+        for (ChatMessage m : lastByRoom.values()) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+            args[i++] = m.getChatRoomId();
+            args[i++] = m.getId();
+            args[i++] = m.getSenderId();
+            args[i++] = m.getMessageType().name();
+            args[i++] = m.getMessage();
+            args[i++] = m.getSentAt();
+        }
+        sql.append(UPSERT_SUFFIX);
+
+        try {
+            jdbcTemplate.update(sql.toString(), args);
+        } catch (RuntimeException e) {
+            staleRooms.addAll(lastByRoom.keySet());
+            throw e;
+        }
+    }
+}
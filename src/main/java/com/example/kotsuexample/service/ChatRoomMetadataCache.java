@@ -0,0 +1,73 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.entity.ChatRoomMember;
+import com.example.kotsuexample.entity.enums.ChatRoomType;
+import com.example.kotsuexample.repository.ChatRoomMemberRepository;
+import com.example.kotsuexample.repository.ChatRoomRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// 메시지 처리 경로에서 쓰는 채팅방 메타데이터(타입, 스터디룸 id, 멤버 id) 로컬 캐시
+// 멤버 구성이 바뀌면 Redis 채널로 모든 노드에 무효화를 알림
+@Service
+@RequiredArgsConstructor
+public class ChatRoomMetadataCache {
+
+    public static final String INVALIDATION_CHANNEL = "cache:chatroom";
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatRoomMemberRepository chatRoomMemberRepository;
+    private final RedisPublisher redisPublisher;
+
+    @Value("${chat.room-cache.max-size:10000}")
+    private int maxSize;
+
+    private InvalidatingLruCache<ChatRoomMetadata> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new InvalidatingLruCache<>(INVALIDATION_CHANNEL, redisPublisher, 256, maxSize);
+    }
+
+    public Optional<ChatRoomMetadata> get(Integer chatRoomId) {
+        return cache.get(chatRoomId, this::load);
+    }
+
+    // 커밋 이후 모든 노드(자기 자신 포함)에 무효화 전파
+    public void invalidate(Integer chatRoomId) {
+        cache.invalidate(chatRoomId);
+    }
+
+    // Redis 무효화 메시지 수신 시 호출
+    public void evictLocal(Integer chatRoomId) {
+        cache.evictLocal(chatRoomId);
+    }
+
+    private Optional<ChatRoomMetadata> load(Integer chatRoomId) {
+        return chatRoomRepository.findById(chatRoomId)
+                .map(room -> new ChatRoomMetadata(
+                        room.getType(),
+                        room.getStudyRoomId(),
+                        chatRoomMemberRepository.findByChatRoomId(chatRoomId).stream()
+                                .map(ChatRoomMember::getUserId)
+                                .collect(Collectors.toUnmodifiableSet())
+                ));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ChatRoomMetadata {
+        private final ChatRoomType type;
+        private final Integer studyRoomId;
+        private final Set<Integer> memberIds;
+    }
+}
@@ -3,20 +3,20 @@ package com.example.kotsuexample.service;
 import com.example.kotsuexample.dto.ChatRoomRequest;
 import com.example.kotsuexample.dto.ChatRoomResponse;
 import com.example.kotsuexample.dto.GroupChatRoomRequest;
+import com.example.kotsuexample.dto.UserResponse;
 import com.example.kotsuexample.entity.ChatRoom;
 import com.example.kotsuexample.entity.ChatRoomMember;
-import com.example.kotsuexample.entity.User;
 import com.example.kotsuexample.entity.enums.ChatRoomType;
 import com.example.kotsuexample.exception.ChatRoomNotFoundException;
 import com.example.kotsuexample.exception.StudyDataNotFoundException;
 import com.example.kotsuexample.repository.ChatRoomMemberRepository;
 import com.example.kotsuexample.repository.ChatRoomRepository;
-import com.example.kotsuexample.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -25,7 +25,8 @@ public class ChatRoomService {
 
     private final ChatRoomRepository chatRoomRepository;
     private final ChatRoomMemberRepository chatRoomMemberRepository;
-    private final UserRepository userRepository;
+    private final UserService userService;
+    private final ChatRoomMetadataCache chatRoomMetadataCache;
 
     public ChatRoomResponse getOrCreateSingleRoom(ChatRoomRequest request) {
         Integer userA = request.getRequesterId();
@@ -55,14 +56,20 @@ public class ChatRoomService {
                         .joinedAt(LocalDateTime.now())
                         .build()
         ));
+        chatRoomMetadataCache.invalidate(room.getId());
 
         return ChatRoomResponse.of(room, getMemberInfo(room.getId()));
     }
 
     private List<ChatRoomResponse.MemberInfo> getMemberInfo(Integer roomId) {
-        return chatRoomMemberRepository.findByChatRoomId(roomId).stream()
-                .map(member -> {
-                    User user = userRepository.findById(member.getUserId()).orElseThrow();
+        List<Integer> memberIds = chatRoomMemberRepository.findByChatRoomId(roomId).stream()
+                .map(ChatRoomMember::getUserId)
+                .toList();
+        Map<Integer, UserResponse> users = userService.getSimpleUserInfos(memberIds);
+
+        return memberIds.stream()
+                .map(memberId -> {
+                    UserResponse user = Optional.ofNullable(users.get(memberId)).orElseThrow();
                     return ChatRoomResponse.MemberInfo.builder()
                             .userId(user.getId())
                             .nickname(user.getNickname())
@@ -73,12 +80,9 @@ public class ChatRoomService {
     }
 
     public List<Integer> getMemberIds(Integer roomId) {
-        if (!chatRoomRepository.existsById(roomId)) throw new ChatRoomNotFoundException("채팅방이 존재하지 않거나 유효하지 않습니다.");
-
-        return chatRoomMemberRepository.findByChatRoomId(roomId)
-                .stream()
-                .map(ChatRoomMember::getUserId)
-                .toList();
+        return chatRoomMetadataCache.get(roomId)
+                .map(metadata -> List.copyOf(metadata.getMemberIds()))
+                .orElseThrow(() -> new ChatRoomNotFoundException("채팅방이 존재하지 않거나 유효하지 않습니다."));
     }
 
     public ChatRoomResponse getOrCreateGroupRoom(GroupChatRoomRequest req) {
@@ -106,17 +110,16 @@ public class ChatRoomService {
                         .build())
                 .toList();
         chatRoomMemberRepository.saveAll(members);
+        chatRoomMetadataCache.invalidate(room.getId());
 
         // 4. 응답 생성
         return ChatRoomResponse.of(room, getMemberInfo(room.getId()));
     }
 
     public ChatRoomType getRoomType(Integer chatRoomId) {
-        System.out.println("chatRoomId = " + chatRoomId);
-
-        ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
+        return chatRoomMetadataCache.get(chatRoomId)
+                .map(ChatRoomMetadataCache.ChatRoomMetadata::getType)
                 .orElseThrow(() -> new IllegalArgumentException("ChatRoom not found: " + chatRoomId));
-        return chatRoom.getType();
     }
 
     public Integer getGroupChatRoomIdByStudyRoomId(Integer studyRoomId) {
@@ -0,0 +1,311 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.dto.ChatMessageDTO;
+import com.example.kotsuexample.entity.ChatMessage;
+import com.example.kotsuexample.entity.enums.MessageType;
+import com.example.kotsuexample.exception.NoAuthorizationException;
+import com.example.kotsuexample.exception.OperationNotAllowedException;
+import com.example.kotsuexample.repository.ChatMessageRepository;
+import com.example.kotsuexample.repository.ChatRoomMemberRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// 채팅 내역 검색 - 방별 bigram 색인(RoomSearchIndex)으로 후보를 좁히고 본문은 후보만 DB 에서 읽어 확인
+// (chat_messages 의 @Lob 본문을 LIKE '%q%' 로 훑지 않음)
+// 색인은 이 노드가 저장한 배치로 바로 갱신하고, 검색 직전에 다른 노드가 저장한 메시지를 DB 에서 따라잡음
+// (요청 스레드에서는 catch-up-max-pages 까지만 읽고 나머지는 백그라운드에서 이어 읽음 - 그동안 결과는 색인된 범위까지만)
+// 최근에 쓴 방만 메모리에 두고 나머지는 로컬 디스크 스냅샷(chat.search.index-dir)으로 내림
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatSearchService {
+
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRoomMemberRepository chatRoomMemberRepository;
+
+    @Value("${chat.search.index-dir:${java.io.tmpdir}/kotsu-search}")
+    private String indexDir;
+
+    @Value("${chat.search.max-rooms:1000}")
+    private int maxRooms;
+
+    // 노드마다 미리 발급받은 id 로 저장하므로 작은 id 가 늦게 커밋될 수 있음 → 이 시간이 지난 범위만 확정
+    @Value("${chat.search.settle-ms:5000}")
+    private long settleMs;
+
+    @Value("${chat.search.catch-up-batch:1000}")
+    private int catchUpBatch;
+
+    @Value("${chat.search.catch-up-max-pages:5}")
+    private int catchUpMaxPages;
+
+    private Path baseDir;
+    private Map<Integer, RoomState> rooms;
+    // LRU 에서 밀려난 방 - 맵 락을 잡은 채로 디스크에 쓰지 않도록 모아 뒀다가 락 밖에서 저장
+    private final Queue<Map.Entry<Integer, RoomState>> evicted = new ConcurrentLinkedQueue<>();
+    private ExecutorService catchUpExecutor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        baseDir = Path.of(indexDir);
+        Files.createDirectories(baseDir);
+        catchUpExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "chat-search-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 접근 순서 LinkedHashMap 으로 LRU 제거 (내보낸 방은 saveEvicted 가 디스크에 저장)
+        rooms = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, RoomState> eldest) {
+                if (size() <= maxRooms) return false;
+                evicted.add(Map.entry(eldest.getKey(), eldest.getValue()));
+                return true;
+            }
+        });
+    }
+
+    public List<ChatMessageDTO> search(Integer roomId, Integer userId, String query, Integer before, Integer size) {
+        if (!chatRoomMemberRepository.existsByChatRoomIdAndUserId(roomId, userId)) {
+            throw new NoAuthorizationException("채팅방 멤버가 아닙니다.");
+        }
+        String normalized = RoomSearchIndex.normalize(query);
+        if (normalized.length() < MIN_QUERY_LENGTH) {
+            throw new OperationNotAllowedException("검색어는 공백을 제외하고 " + MIN_QUERY_LENGTH + "글자 이상이어야 합니다.");
+        }
+        int pageSize = (size == null || size <= 0) ? 20 : Math.min(size, MAX_PAGE_SIZE);
+
+        RoomState state = room(roomId);
+        catchUp(roomId, state, catchUpMaxPages);
+
+        // 후보 중 실제로 붙어 있는 것만 남기고, 모자라면 다음 후보를 더 가져옴
+        List<ChatMessageDTO> result = new ArrayList<>(pageSize);
+        Integer cursor = before;
+        while (result.size() < pageSize) {
+            int[] candidates = state.index.candidates(normalized, cursor, pageSize * 2);
+            if (candidates.length == 0) break;
+
+            List<Integer> ids = Arrays.stream(candidates).boxed().toList();
+            Map<Integer, ChatMessage> byId = chatMessageRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(ChatMessage::getId, Function.identity()));
+            for (Integer id : ids) {
+                ChatMessage msg = byId.get(id);
+                if (msg != null && RoomSearchIndex.normalize(msg.getMessage()).contains(normalized)) {
+                    result.add(toDto(msg));
+                    if (result.size() == pageSize) break;
+                }
+            }
+            if (candidates.length < pageSize * 2) break;
+            cursor = candidates[candidates.length - 1];
+        }
+        return result;
+    }
+
+    // 이 노드에서 DB 에 저장된 배치 (ChatMessageWriteBuffer) - 메모리에 올라와 있는 방만 바로 반영
+    public void onPersisted(List<ChatMessage> batch) {
+        for (ChatMessage message : batch) {
+            if (message.getMessageType() != MessageType.TEXT) continue;
+            RoomState state = rooms.get(message.getChatRoomId());
+            if (state != null) {
+                state.index.add(message.getId(), message.getMessage());
+                state.dirty = true;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.search.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        saveEvicted();
+        List<Map.Entry<Integer, RoomState>> entries;
+        synchronized (rooms) {
+            entries = new ArrayList<>(rooms.entrySet());
+        }
+        for (Map.Entry<Integer, RoomState> entry : entries) {
+            save(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        catchUpExecutor.shutdownNow();
+        snapshot();
+    }
+
+    // 스냅샷 읽기/쓰기는 맵 락 밖에서 (다른 방 검색/onPersisted 가 디스크 I/O 를 기다리지 않음)
+    // 같은 방을 동시에 읽었으면 먼저 넣은 쪽을 사용
+    private RoomState room(Integer roomId) {
+        RoomState state = rooms.get(roomId);
+        if (state != null) return state;
+
+        RoomState loaded = load(roomId);
+        state = rooms.putIfAbsent(roomId, loaded);
+        saveEvicted();
+        return state != null ? state : loaded;
+    }
+
+    private void saveEvicted() {
+        Map.Entry<Integer, RoomState> entry;
+        while ((entry = evicted.poll()) != null) {
+            save(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // settledId 이후를 DB 에서 읽어 색인 (이미 색인된 id 는 무시되므로 겹쳐 읽어도 됨)
+    // 다른 스레드가 이미 읽고 있으면 기다리지 않고 지금 색인으로 검색, 다 못 읽었으면 백그라운드로 넘김
+    private void catchUp(Integer roomId, RoomState state, int maxPages) {
+        if (!state.catchingUp.compareAndSet(false, true)) return;
+        boolean done;
+        try {
+            done = readPages(roomId, state, maxPages);
+        } finally {
+            state.catchingUp.set(false);
+        }
+        if (!done && state.scheduled.compareAndSet(false, true)) {
+            catchUpExecutor.execute(() -> {
+                state.scheduled.set(false);
+                try {
+                    catchUp(roomId, state, Integer.MAX_VALUE);
+                } catch (RuntimeException e) {
+                    log.error("검색 색인 따라잡기 실패 {}", roomId, e);
+                }
+            });
+        }
+    }
+
+    // 한 번의 따라잡기는 settledId 부터 마지막 메시지까지 - 여러 호출에 걸쳐 readId 부터 이어 읽음
+    // 끝까지 읽었으면 true
+    private boolean readPages(Integer roomId, RoomState state, int maxPages) {
+        if (state.readId < 0) {
+            if (state.candidateId > 0 && state.candidateAt <= System.currentTimeMillis() - settleMs) {
+                state.index.setSettledId(state.candidateId);
+                state.candidateId = 0;
+            }
+            state.readId = state.index.getSettledId();
+        }
+
+        int pages = 0;
+        List<ChatMessage> page;
+        do {
+            if (pages++ == maxPages) return false;
+            page = chatMessageRepository.findByChatRoomIdAndIdGreaterThanOrderByIdAsc(
+                    roomId, state.readId, PageRequest.of(0, catchUpBatch));
+            for (ChatMessage message : page) {
+                if (message.getMessageType() == MessageType.TEXT) {
+                    state.index.add(message.getId(), message.getMessage());
+                }
+                state.readId = message.getId();
+            }
+            if (!page.isEmpty()) state.dirty = true;
+        } while (page.size() == catchUpBatch);
+
+        // 다 읽은 시점부터 settle-ms 를 셈
+        if (state.readId > state.index.getSettledId() && state.candidateId == 0) {
+            state.candidateId = state.readId;
+            state.candidateAt = System.currentTimeMillis();
+        }
+        state.readId = -1;
+        return true;
+    }
+
+    private RoomState load(Integer roomId) {
+        Path file = fileOf(roomId);
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                return new RoomState(RoomSearchIndex.readFrom(in));
+            } catch (IOException e) {
+                // 깨진 스냅샷은 버리고 DB 에서 다시 색인
+                log.error("검색 색인 스냅샷 읽기 실패 {}: {}", roomId, e.getMessage());
+            }
+        }
+        return new RoomState(new RoomSearchIndex());
+    }
+
+    // 임시 파일에 쓴 뒤 교체해서 중간에 죽어도 이전 스냅샷은 남도록
+    // (주기 스냅샷과 LRU 내보내기가 같은 방을 동시에 저장할 수 있으므로 임시 파일은 매번 새로)
+    private void save(Integer roomId, RoomState state) {
+        if (!state.dirty) return;
+        state.dirty = false;
+        Path file = fileOf(roomId);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(baseDir, "room-" + roomId + "-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                state.index.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            state.dirty = true;
+            log.error("검색 색인 스냅샷 저장 실패 {}: {}", roomId, e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // 다음 저장 때 다시 만듦
+                }
+            }
+        }
+    }
+
+    private Path fileOf(Integer roomId) {
+        return baseDir.resolve("room-" + roomId + ".idx");
+    }
+
+    private ChatMessageDTO toDto(ChatMessage msg) {
+        return ChatMessageDTO.builder()
+                .id(msg.getId())
+                .chatRoomId(msg.getChatRoomId())
+                .senderId(msg.getSenderId())
+                .message(msg.getMessage())
+                .messageType(msg.getMessageType())
+                .sentAt(msg.getSentAt().toString())
+                .build();
+    }
+
+    private static final class RoomState {
+        private final RoomSearchIndex index;
+        private volatile boolean dirty;
+        private final AtomicBoolean catchingUp = new AtomicBoolean();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // 아래 필드는 catchingUp 을 잡은 스레드만 읽고 씀
+        // 진행 중인 따라잡기에서 마지막으로 읽은 id (-1 이면 진행 중인 것 없음)
+        private int readId = -1;
+        // 마지막으로 끝까지 읽은 최대 id 와 그 시각 (settle-ms 가 지나면 settledId 로 확정)
+        private int candidateId;
+        private long candidateAt;
+
+        private RoomState(RoomSearchIndex index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.config.websocket.BroadcastFrame;
+import com.example.kotsuexample.config.websocket.ChatSessionManager;
+import com.example.kotsuexample.config.websocket.ChatWireCodec;
+import com.example.kotsuexample.dto.GroupChatMessageDTO;
+import com.example.kotsuexample.entity.enums.MessageType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 입력 중(TYPING)/보고 있음(PRESENCE) 같은 휘발성 신호 - MySQL 에는 쓰지 않고 Redis 로만 전파
+// 사용자·방별로 coalesce-ms 에 한 번만 발행하고, 그 사이 들어온 변경은 마지막 상태 하나로 합쳐 구간 끝에 발행
+// PRESENCE 는 chat:presence:{roomId} ZSET(score = 만료 시각)에 두고 하트비트가 끊기면 만료
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EphemeralSignalService {
+
+    private static final String PRESENCE_KEY_PREFIX = "chat:presence:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisPublisher redisPublisher;
+    private final ChatWireCodec chatWireCodec;
+    private final ChatSessionManager chatSessionManager;
+
+    @Value("${chat.ephemeral.coalesce-ms:300}")
+    private long coalesceMs;
+
+    @Value("${chat.ephemeral.presence-ttl-ms:30000}")
+    private long presenceTtlMs;
+
+    // 키: 타입:방:사용자
+    private final Map<String, Coalesced> coalesced = new ConcurrentHashMap<>();
+    // 이 노드가 하트비트를 받은 방만 만료 정리 (다른 노드와 겹쳐도 ZREM 에 성공한 쪽만 발행)
+    private final Set<String> presenceRooms = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-ephemeral");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public static boolean isEphemeral(MessageType type) {
+        return type == MessageType.TYPING || type == MessageType.PRESENCE;
+    }
+
+    // dto.senderId 는 호출하는 쪽에서 세션 사용자로 채워서 넘김
+    public void handle(String roomId, GroupChatMessageDTO dto, boolean cbor) {
+        if (dto.getSenderId() == null) return;
+        boolean active = !Boolean.FALSE.equals(dto.getActive());
+
+        if (dto.getMessageType() == MessageType.PRESENCE) {
+            // 하트비트는 만료 시각만 늘리고, 상태가 바뀐 경우(입장/퇴장)만 방에 알림
+            if (!updatePresence(roomId, dto.getSenderId(), active)) return;
+        }
+
+        GroupChatMessageDTO signal = GroupChatMessageDTO.builder()
+                .messageType(dto.getMessageType())
+                .chatRoomId(Integer.valueOf(roomId))
+                .senderId(dto.getSenderId())
+                .active(active)
+                .build();
+        offer(dto.getMessageType() + ":" + roomId + ":" + dto.getSenderId(), roomId, signal, cbor);
+    }
+
+    // 새로 접속한 세션에 지금 방을 보고 있는 사용자들을 알려줌
+    public void sendPresenceSnapshot(WebSocketSession session) {
+        String roomId = chatSessionManager.getRoomId(session);
+        Set<String> userIds = redisTemplate.opsForZSet()
+                .rangeByScore(PRESENCE_KEY_PREFIX + roomId, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        if (userIds == null) return;
+
+        boolean cbor = ChatWireCodec.isCbor(session);
+        try {
+            for (String userId : userIds) {
+                GroupChatMessageDTO signal = GroupChatMessageDTO.builder()
+                        .messageType(MessageType.PRESENCE)
+                        .chatRoomId(Integer.valueOf(roomId))
+                        .senderId(Integer.valueOf(userId))
+                        .active(true)
+                        .build();
+                byte[] payload = chatWireCodec.write(signal, cbor);
+                chatSessionManager.sendTo(session, new BroadcastFrame(payload, chatWireCodec).forSession(session));
+            }
+        } catch (Exception e) {
+            log.warn("접속 상태 스냅샷 전송 실패 roomId={}, sessionId={}", roomId, session.getId(), e);
+        }
+    }
+
+    // 하트비트가 끊긴 사용자를 정리하고 퇴장으로 알림
+    @Scheduled(fixedDelayString = "${chat.ephemeral.presence-sweep-ms:5000}")
+    public void expirePresence() {
+        long now = System.currentTimeMillis();
+        for (String roomId : presenceRooms) {
+            String key = PRESENCE_KEY_PREFIX + roomId;
+            try {
+                Set<String> expired = redisTemplate.opsForZSet().rangeByScore(key, 0, now);
+                if (expired != null) {
+                    for (String userId : expired) {
+                        Long removed = redisTemplate.opsForZSet().remove(key, userId);
+                        if (removed != null && removed > 0) {
+                            publish(roomId, GroupChatMessageDTO.builder()
+                                    .messageType(MessageType.PRESENCE)
+                                    .chatRoomId(Integer.valueOf(roomId))
+                                    .senderId(Integer.valueOf(userId))
+                                    .active(false)
+                                    .build(), false);
+                        }
+                    }
+                }
+                Long remaining = redisTemplate.opsForZSet().zCard(key);
+                if (remaining == null || remaining == 0) {
+                    presenceRooms.remove(roomId);
+                }
+            } catch (Exception e) {
+                log.error("presence 만료 정리 실패 {}: {}", roomId, e.getMessage());
+            }
+        }
+
+        // 한동안 신호가 없던 사용자의 coalesce 상태 정리
+        long idleBefore = now - Math.max(coalesceMs * 10, 60000);
+        coalesced.entrySet().removeIf(entry -> {
+            Coalesced c = entry.getValue();
+            synchronized (c) {
+                return !c.scheduled && c.lastSentAt < idleBefore;
+            }
+        });
+    }
+
+    // 상태가 바뀌었으면 true
+    // 하트비트마다 불리므로 이전 만료 시각 조회/갱신/키 만료를 파이프라인 한 번으로 보냄
+    private boolean updatePresence(String roomId, Integer userId, boolean active) {
+        String key = PRESENCE_KEY_PREFIX + roomId;
+        String member = String.valueOf(userId);
+        long now = System.currentTimeMillis();
+
+        if (!active) {
+            Long removed = redisTemplate.opsForZSet().remove(key, member);
+            return removed != null && removed > 0;
+        }
+
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.opsForZSet().score(key, member);
+                operations.opsForZSet().add(key, member, now + presenceTtlMs);
+                // 아무도 정리하지 않게 되더라도 키 자체는 남지 않도록
+                operations.expire(key, presenceTtlMs * 2, TimeUnit.MILLISECONDS);
+                return null;
+            }
+        });
+        Double previousExpiry = (Double) results.get(0);
+        presenceRooms.add(roomId);
+        return previousExpiry == null || previousExpiry < now;
+    }
+
+    private void offer(String key, String roomId, GroupChatMessageDTO signal, boolean cbor) {
+        Coalesced c = coalesced.computeIfAbsent(key, k -> new Coalesced());
+        synchronized (c) {
+            long now = System.currentTimeMillis();
+            long wait = c.lastSentAt + coalesceMs - now;
+            if (wait <= 0 && !c.scheduled) {
+                c.lastSentAt = now;
+                publish(roomId, signal, cbor);
+                return;
+            }
+
+            // 구간 안에 들어온 변경은 마지막 것만 남겨 구간이 끝날 때 발행
+            c.pending = signal;
+            c.pendingCbor = cbor;
+            if (!c.scheduled) {
+                c.scheduled = true;
+                scheduler.schedule(() -> flush(roomId, c), wait, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush(String roomId, Coalesced c) {
+        synchronized (c) {
+            c.scheduled = false;
+            if (c.pending == null) return;
+            c.lastSentAt = System.currentTimeMillis();
+            publish(roomId, c.pending, c.pendingCbor);
+            c.pending = null;
+        }
+    }
+
+    // 방 채널로만 발행 - 스트림(재전송 로그)에도 남기지 않음
+    private void publish(String roomId, GroupChatMessageDTO signal, boolean cbor) {
+        try {
+            redisPublisher.publish("chatroom:" + roomId, chatWireCodec.write(signal, cbor));
+        } catch (Exception e) {
+            log.error("휘발성 신호 발행 실패 {}: {}", roomId, e.getMessage());
+        }
+    }
+
+    private static final class Coalesced {
+        private long lastSentAt;
+        private boolean scheduled;
+        private GroupChatMessageDTO pending;
+        private boolean pendingCbor;
+    }
+}
@@ -9,6 +9,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -21,15 +23,13 @@ public class FriendService {
     public List<UserResponse> getFriends(Integer userId) {
         List<Friend> friends = friendRepository.findAcceptedFriends(userId);
 
-        return friends.stream()
-                .map(friend -> {
-                    Integer friendId = friend.getRequesterId().equals(userId)
-                            ? friend.getAddresseeId()
-                            : friend.getRequesterId();
-
-                    return userService.getSimpleUserInfoById(friendId);
-                })
+        List<Integer> friendIds = friends.stream()
+                .map(friend -> friend.getRequesterId().equals(userId)
+                        ? friend.getAddresseeId()
+                        : friend.getRequesterId())
                 .toList();
+
+        return toUserResponses(friendIds);
     }
 
     public Boolean requestOrCancelFriend(Integer requesterId, Integer addresseeId) {
@@ -55,17 +55,13 @@ public class FriendService {
     // 내가 보낸 요청
     public List<UserResponse> getRequestedFriends(Integer userId) {
         List<Friend> requests = friendRepository.findByRequesterIdAndStatus(userId, FriendStatus.PENDING);
-        return requests.stream()
-                .map(friend -> userService.getSimpleUserInfoById(friend.getAddresseeId()))
-                .toList();
+        return toUserResponses(requests.stream().map(Friend::getAddresseeId).toList());
     }
 
     // 내가 받은 요청
     public List<UserResponse> getPendingRequests(Integer userId) {
         List<Friend> requests = friendRepository.findByAddresseeIdAndStatus(userId, FriendStatus.PENDING);
-        return requests.stream()
-                .map(friend -> userService.getSimpleUserInfoById(friend.getRequesterId()))
-                .toList();
+        return toUserResponses(requests.stream().map(Friend::getRequesterId).toList());
     }
 
     public void deleteFriend(Integer userId, Integer friendId) {
@@ -102,4 +98,13 @@ public class FriendService {
 
         friendRepository.delete(friend);
     }
+
+    // 유저 정보를 한 번에 조회해서 id 순서대로 반환 (탈퇴 등으로 없는 유저는 제외)
+    private List<UserResponse> toUserResponses(List<Integer> userIds) {
+        Map<Integer, UserResponse> users = userService.getSimpleUserInfos(userIds);
+        return userIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 }
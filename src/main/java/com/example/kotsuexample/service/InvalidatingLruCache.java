@@ -0,0 +1,90 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.config.redis.RedisPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// id 로 찾는 노드별 LRU 로컬 캐시 (UserProfileCache, ChatRoomMetadataCache 공용)
+// 원본이 바뀌면 커밋 이후 Redis 채널로 모든 노드(자기 자신 포함)에 무효화를 알림 → CacheInvalidationSubscriber
+// 읽어 오는 사이에 무효화가 들어오면 읽은 값은 넣지 않음 (무효화 횟수를 읽기 전후로 비교)
+class InvalidatingLruCache<V> {
+
+    private final String channel;
+    private final RedisPublisher redisPublisher;
+    private final Map<Integer, V> entries;
+    // 무효화 횟수 - entries 락 안에서만 바뀜 (키별로 두지 않고 전체 하나: 무효화는 드물고, 겹쳐도 다음 조회가 다시 읽을 뿐)
+    private long invalidations;
+
+    InvalidatingLruCache(String channel, RedisPublisher redisPublisher, int initialCapacity, int maxSize) {
+        this.channel = channel;
+        this.redisPublisher = redisPublisher;
+        // 접근 순서 LinkedHashMap 으로 LRU 제거
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(initialCapacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, V> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    // 없으면 loader 로 읽어서 채움 (loader 는 락 밖에서 실행)
+    Optional<V> get(Integer id, Function<Integer, Optional<V>> loader) {
+        V cached = entries.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long stamp = stamp();
+        Optional<V> loaded = loader.apply(id);
+        loaded.ifPresent(value -> put(id, value, stamp));
+        return loaded;
+    }
+
+    V getIfPresent(Integer id) {
+        return entries.get(id);
+    }
+
+    // 원본을 읽기 전에 받아 두고 put 에 넘김
+    long stamp() {
+        synchronized (entries) {
+            return invalidations;
+        }
+    }
+
+    // stamp 이후 무효화가 있었으면 넣지 않음 (방금 읽은 값이 이미 지난 값일 수 있음)
+    void put(Integer id, V value, long stamp) {
+        synchronized (entries) {
+            if (invalidations == stamp) {
+                entries.put(id, value);
+            }
+        }
+    }
+
+    void invalidate(Integer id) {
+        evictLocal(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    redisPublisher.publish(channel, String.valueOf(id));
+                }
+            });
+        } else {
+            redisPublisher.publish(channel, String.valueOf(id));
+        }
+    }
+
+    void evictLocal(Integer id) {
+        synchronized (entries) {
+            invalidations++;
+            entries.remove(id);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.config.s3.AttachmentProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// S3 대신 로컬 디렉터리에 쓰는 저장소 (개발/테스트용)
+@Component
+@ConditionalOnProperty(name = "chat.attachment.storage", havingValue = "local")
+public class LocalAttachmentStorage implements AttachmentStorage {
+
+    private final Path baseDir;
+
+    @Autowired
+    public LocalAttachmentStorage(AttachmentProperties properties) {
+        this(Path.of(properties.getLocalDir()));
+    }
+
+    public LocalAttachmentStorage(Path baseDir) {
+        this.baseDir = baseDir;
+    }
+
+    @Override
+    public Upload begin(String key, String contentType) {
+        Path target = baseDir.resolve(key).normalize();
+        if (!target.startsWith(baseDir)) {
+            throw new IllegalArgumentException("잘못된 첨부파일 경로입니다: " + key);
+        }
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        OutputStream out;
+        try {
+            Files.createDirectories(target.getParent());
+            out = Files.newOutputStream(partial);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new Upload() {
+            @Override
+            public void writePart(int partNumber, byte[] data, int length) {
+                try {
+                    out.write(data, 0, length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public String complete() {
+                try {
+                    out.close();
+                    Files.move(partial, target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return target.toUri().toString();
+            }
+
+            @Override
+            public void abort() {
+                try {
+                    out.close();
+                    Files.deleteIfExists(partial);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
@@ -17,6 +17,8 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -89,10 +91,14 @@ public class NotificationService {
         Sort.Direction direction = sortArr.length > 1 && sortArr[1].equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortArr[0]));
 
-        // JPA에서 Page<Notification> 조회 → DTO 변환
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageRequest)
+        // JPA에서 Page<Notification> 조회 → 보낸 사람 정보는 한 번에 조회 → DTO 변환
+        Page<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageRequest);
+        Map<Integer, UserResponse> senders = userService.getSimpleUserInfos(
+                notifications.getContent().stream().map(Notification::getSenderId).collect(Collectors.toSet()));
+
+        return notifications
                 .map(notification -> {
-                    UserResponse sender = userService.getSimpleUserInfoById(notification.getSenderId());
+                    UserResponse sender = senders.get(notification.getSenderId());
                     return NotificationResponse.builder()
                             .id(notification.getId())
                             .type(notification.getType())
@@ -0,0 +1,122 @@
+package com.example.kotsuexample.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 읽음 시각(chat_read_status) 쓰기 버퍼
+// 스크롤마다 오는 READ 를 (방, 유저) 단위로 합쳐서(가장 늦은 시각만 유지) 주기적으로 한 번에 upsert
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadReceiptBuffer {
+
+    // 더 늦은 시각으로만 갱신 (last_read_at 이 NULL 이면 새 값)
+    private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE"
+            + " last_read_at = GREATEST(COALESCE(last_read_at, VALUES(last_read_at)), VALUES(last_read_at))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    // upsert 기준 unique key 가 확인된 뒤에 쓰도록 의존 (키가 없으면 시작 실패)
+    private final ChatReadStatusMigration chatReadStatusMigration;
+
+    private final Map<ReadKey, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private Counter flushedCounter;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("chat.read_receipt.pending", pending, Map::size)
+                .description("DB 저장 대기 중인 읽음 시각 수")
+                .register(meterRegistry);
+        flushedCounter = Counter.builder("chat.read_receipt.flushed")
+                .description("DB 에 저장된 읽음 시각 수")
+                .register(meterRegistry);
+    }
+
+    // 같은 (방, 유저)의 읽음은 가장 늦은 시각 하나로 합침
+    public void record(Integer chatRoomId, Integer userId, LocalDateTime lastReadAt) {
+        if (chatRoomId == null || userId == null || lastReadAt == null) return;
+        pending.merge(new ReadKey(chatRoomId, userId), lastReadAt,
+                (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    // 실패는 스케줄러로 전파 (실패한 값은 pending 에 다시 합쳐져 있으므로 다음 주기에 재시도)
+    @Scheduled(fixedDelayString = "${chat.read-receipt.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    // chat_read_status 를 읽기 직전에 호출 - 저장에 실패해도 요청은 DB 에 있는 값으로 계속 진행
+    // (실패한 값은 pending 에 남아 있다가 다음 주기 flush 때 저장)
+    public void flushBeforeRead() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("읽음 시각 저장 실패, 저장된 값 기준으로 조회: {}", e.getMessage());
+        }
+    }
+
+    // 대기 중인 읽음 시각을 모두 저장 (실패하면 값을 되돌려 놓고 예외를 던짐)
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        flushLock.lock();
+        try {
+            List<ReadKey> keys = new ArrayList<>(pending.keySet());
+            if (keys.isEmpty()) return;
+
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO chat_read_status (chat_room_id, user_id, last_read_at) VALUES ");
+            List<Object> args = new ArrayList<>(keys.size() * 3);
+            List<Map.Entry<ReadKey, LocalDateTime>> taken = new ArrayList<>(keys.size());
+            for (ReadKey key : keys) {
+                LocalDateTime lastReadAt = pending.remove(key);
+                if (lastReadAt == null) continue;
+                sql.append(taken.isEmpty() ? "(?, ?, ?)" : ", (?, ?, ?)");
+                args.add(key.chatRoomId());
+                args.add(key.userId());
+                args.add(lastReadAt);
+                taken.add(Map.entry(key, lastReadAt));
+            }
+            if (taken.isEmpty()) return;
+            sql.append(UPSERT_SUFFIX);
+
+            try {
+                jdbcTemplate.update(sql.toString(), args.toArray());
+            } catch (RuntimeException e) {
+                // 실패한 값은 다시 합쳐 두고 다음 flush 때 재시도
+                for (Map.Entry<ReadKey, LocalDateTime> entry : taken) {
+                    record(entry.getKey().chatRoomId(), entry.getKey().userId(), entry.getValue());
+                }
+                throw e;
+            }
+            flushedCounter.increment(taken.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record ReadKey(Integer chatRoomId, Integer userId) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.entity.ChatReadStatus;
+import com.example.kotsuexample.entity.ChatRoomMember;
+import com.example.kotsuexample.repository.ChatMessageRepository;
+import com.example.kotsuexample.repository.ChatReadStatusRepository;
+import com.example.kotsuexample.repository.ChatRoomMemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class ReadWatermarkService {
+
+    // 한 번도 읽지 않은 멤버의 범위 조회 시작점 (DB에 LocalDateTime.MIN 을 바인딩할 수 없음)
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRoomMemberRepository chatRoomMemberRepository;
+    private final ChatReadStatusRepository chatReadStatusRepository;
+    private final ReadReceiptBuffer readReceiptBuffer;
+
+    private final Map<Integer, RoomReadWatermarks> rooms = new ConcurrentHashMap<>();
+
+    public RoomReadWatermarks getWatermarks(Integer roomId) {
+        return rooms.computeIfAbsent(roomId, this::load);
+    }
+
+    // READ 이벤트 반영 후, 미확인 인원 수가 실제로 바뀐 메시지만 반환 (messageId -> unreadCount)
+    public Map<Integer, Integer> applyRead(Integer roomId, Integer userId, LocalDateTime lastReadAt, Integer upToMessageId) {
+        RoomReadWatermarks watermarks = getWatermarks(roomId);
+        LocalDateTime previous = watermarks.update(userId, lastReadAt);
+
+        // 멤버가 아니거나 워터마크가 앞으로 움직이지 않았으면 바뀐 것이 없음
+        if (previous == null) {
+            return Collections.emptyMap();
+        }
+
+        LocalDateTime from = RoomReadWatermarks.isNeverRead(previous) ? EPOCH : previous;
+        List<ChatMessageRepository.ReadMarker> changed =
+                chatMessageRepository.findReadMarkersBetween(roomId, from, lastReadAt, upToMessageId);
+
+        Map<Integer, Integer> delta = new LinkedHashMap<>();
+        for (ChatMessageRepository.ReadMarker marker : changed) {
+            if (marker.getSenderId().equals(userId)) continue; // 내가 보낸 메시지는 변화 없음
+            delta.put(marker.getId(), watermarks.unreadCount(marker.getSenderId(), marker.getSentAt()));
+        }
+        return delta;
+    }
+
+    // 다른 노드가 처리한 READ 이벤트 반영 (이미 적재된 방만)
+    public void observe(Integer roomId, Integer userId, LocalDateTime lastReadAt) {
+        RoomReadWatermarks watermarks = rooms.get(roomId);
+        if (watermarks != null) {
+            watermarks.update(userId, lastReadAt);
+        }
+    }
+
+    // 캐시를 거치지 않고 DB 기준으로 새로 적재 (내역 조회처럼 DB 의 읽음 상태가 기준인 곳에서 사용)
+    public RoomReadWatermarks snapshot(Integer roomId) {
+        return load(roomId);
+    }
+
+    // 멤버 구성이 바뀌면 다음 조회 때 DB에서 다시 적재
+    public void evict(Integer roomId) {
+        rooms.remove(roomId);
+    }
+
+    private RoomReadWatermarks load(Integer roomId) {
+        List<Integer> memberIds = chatRoomMemberRepository.findByChatRoomId(roomId).stream()
+                .map(ChatRoomMember::getUserId)
+                .toList();
+
+        readReceiptBuffer.flushBeforeRead();
+        Map<Integer, LocalDateTime> lastReadMap = new HashMap<>();
+        for (ChatReadStatus status : chatReadStatusRepository.findByChatRoomId(roomId)) {
+            if (status.getLastReadAt() != null) {
+                lastReadMap.put(status.getUserId(), status.getLastReadAt());
+            }
+        }
+        return new RoomReadWatermarks(memberIds, lastReadMap);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.kotsuexample.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 채팅방 멤버들의 마지막 읽음 시각(워터마크)을 정렬된 상태로 보관
+// "이 메시지를 안 읽은 멤버 수" = 워터마크가 메시지 시각보다 이전인 멤버 수 → 이진 탐색으로 계산
+public class RoomReadWatermarks {
+
+    // 한 번도 읽지 않은 멤버는 가장 오래된 시각으로 취급
+    private static final LocalDateTime NEVER_READ = LocalDateTime.MIN;
+
+    private final Map<Integer, LocalDateTime> watermarkByMember = new HashMap<>();
+    private final List<LocalDateTime> sortedWatermarks = new ArrayList<>();
+
+    public RoomReadWatermarks(Collection<Integer> memberIds, Map<Integer, LocalDateTime> lastReadMap) {
+        for (Integer memberId : memberIds) {
+            LocalDateTime lastReadAt = lastReadMap.get(memberId);
+            LocalDateTime watermark = lastReadAt != null ? lastReadAt : NEVER_READ;
+            watermarkByMember.put(memberId, watermark);
+            sortedWatermarks.add(watermark);
+        }
+        Collections.sort(sortedWatermarks);
+    }
+
+    public synchronized boolean isMember(Integer userId) {
+        return watermarkByMember.containsKey(userId);
+    }
+
+    public synchronized int memberCount() {
+        return watermarkByMember.size();
+    }
+
+    // 보낸 사람을 제외하고, sentAt 시점의 메시지를 아직 읽지 않은 멤버 수
+    public synchronized int unreadCount(Integer senderId, LocalDateTime sentAt) {
+        int unread = countBefore(sentAt);
+        LocalDateTime senderWatermark = watermarkByMember.get(senderId);
+        if (senderWatermark != null && senderWatermark.isBefore(sentAt)) {
+            unread--; // 본인은 제외
+        }
+        return unread;
+    }
+
+    // 워터마크를 앞으로만 옮기고, 실제로 옮겼을 때만 이전 값을 반환 (멤버가 아니거나 옮기지 않았으면 null)
+    // 늦게 도착하거나 노드 간 순서가 바뀐 READ 가 더 최신 값을 덮어쓰지 않도록 (DB 도 GREATEST 로 최대값 유지)
+    public synchronized LocalDateTime update(Integer userId, LocalDateTime lastReadAt) {
+        LocalDateTime previous = watermarkByMember.get(userId);
+        if (previous == null || lastReadAt == null || !lastReadAt.isAfter(previous)) return null;
+
+        sortedWatermarks.remove(lowerBound(previous));
+        sortedWatermarks.add(lowerBound(lastReadAt), lastReadAt);
+        watermarkByMember.put(userId, lastReadAt);
+        return previous;
+    }
+
+    public static boolean isNeverRead(LocalDateTime watermark) {
+        return NEVER_READ.equals(watermark);
+    }
+
+    // 워터마크 < sentAt 인 멤버 수
+    private int countBefore(LocalDateTime sentAt) {
+        return lowerBound(sentAt);
+    }
+
+    // value 이상인 첫 위치
+    private int lowerBound(LocalDateTime value) {
+        int low = 0;
+        int high = sortedWatermarks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedWatermarks.get(mid).isBefore(value)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.kotsuexample.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// 채팅방 하나의 문자 bigram 역색인 (bigram -> 메시지 id 오름차순 배열)
+// 형태소 분석기 없이 한국어/일본어를 검색할 수 있도록 공백을 뺀 본문을 두 글자씩 잘라 색인
+// bigram 이 모두 들어 있어도 붙어 있지 않을 수 있으므로 결과는 '후보' - 본문으로 한 번 더 확인해야 함
+public class RoomSearchIndex {
+
+    private static final int MAGIC = 0x4B534958; // "KSIX"
+    private static final int VERSION = 1;
+
+    private final Map<Integer, Postings> postings = new HashMap<>();
+    // DB 에서 빠짐없이 색인했다고 확정된 마지막 메시지 id (ChatSearchService 의 catch-up 기준)
+    private int settledId;
+
+    public static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public synchronized void add(int messageId, String text) {
+        for (int key : bigrams(normalize(text))) {
+            postings.computeIfAbsent(key, k -> new Postings()).add(messageId);
+        }
+    }
+
+    // beforeId 보다 작은 id 중 모든 bigram 을 가진 메시지를 최신순으로 최대 limit 개
+    // normalizedQuery 는 두 글자 이상이어야 함
+    public synchronized int[] candidates(String normalizedQuery, Integer beforeId, int limit) {
+        int[] keys = bigrams(normalizedQuery);
+        if (keys.length == 0) return new int[0];
+
+        Postings[] lists = new Postings[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) return new int[0];
+        }
+        // 가장 짧은 목록을 기준으로 나머지에서 이진 탐색
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        Postings shortest = lists[0];
+        int from = beforeId == null ? shortest.size - 1 : lowerBound(shortest, beforeId) - 1;
+        int[] result = new int[Math.min(limit, Math.max(from + 1, 0))];
+        int found = 0;
+        for (int i = from; i >= 0 && found < result.length; i--) {
+            int id = shortest.ids[i];
+            boolean all = true;
+            for (int j = 1; j < lists.length && all; j++) {
+                all = Arrays.binarySearch(lists[j].ids, 0, lists[j].size, id) >= 0;
+            }
+            if (all) {
+                result[found++] = id;
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    public synchronized int getSettledId() {
+        return settledId;
+    }
+
+    public synchronized void setSettledId(int settledId) {
+        this.settledId = settledId;
+    }
+
+    public synchronized int bigramCount() {
+        return postings.size();
+    }
+
+    // 포스팅은 id 차이를 varint 로 저장
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(settledId);
+        out.writeInt(postings.size());
+        for (Map.Entry<Integer, Postings> entry : postings.entrySet()) {
+            Postings list = entry.getValue();
+            out.writeInt(entry.getKey());
+            writeVarInt(out, list.size);
+            int previous = 0;
+            for (int i = 0; i < list.size; i++) {
+                writeVarInt(out, list.ids[i] - previous);
+                previous = list.ids[i];
+            }
+        }
+    }
+
+    public static RoomSearchIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("지원하지 않는 검색 색인 파일입니다.");
+        }
+        RoomSearchIndex index = new RoomSearchIndex();
+        index.settledId = in.readInt();
+        int keys = in.readInt();
+        for (int k = 0; k < keys; k++) {
+            int key = in.readInt();
+            Postings list = new Postings(readVarInt(in));
+            int previous = 0;
+            for (int i = 0; i < list.ids.length; i++) {
+                previous += readVarInt(in);
+                list.ids[i] = previous;
+            }
+            list.size = list.ids.length;
+            index.postings.put(key, list);
+        }
+        return index;
+    }
+
+    // 중복 없는 bigram (두 글자를 int 하나로)
+    private static int[] bigrams(String normalized) {
+        if (normalized.length() < 2) return new int[0];
+        int[] keys = new int[normalized.length() - 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (normalized.charAt(i) << 16) | normalized.charAt(i + 1);
+        }
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static int lowerBound(Postings list, int id) {
+        int index = Arrays.binarySearch(list.ids, 0, list.size, id);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("잘못된 varint");
+    }
+
+    private static final class Postings {
+        private int[] ids;
+        private int size;
+
+        private Postings() {
+            this(4);
+        }
+
+        private Postings(int capacity) {
+            ids = new int[capacity];
+        }
+
+        // 대부분 id 가 커지는 순서로 들어오므로 뒤에 붙이고, 늦게 들어온 id 만 끼워 넣음 (이미 있으면 무시)
+        private void add(int id) {
+            int at = size;
+            if (size > 0 && ids[size - 1] >= id) {
+                at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) return;
+                at = -at - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+    }
+}
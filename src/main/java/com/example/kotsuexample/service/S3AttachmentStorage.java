@@ -0,0 +1,44 @@
+package com.example.kotsuexample.service;
+
+import com.amazonaws.services.s3.model.PartETag;
+import com.example.kotsuexample.config.s3.S3UploadProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 첨부파일을 S3 멀티파트 업로드로 바로 흘려보냄
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "chat.attachment.storage", havingValue = "s3", matchIfMissing = true)
+public class S3AttachmentStorage implements AttachmentStorage {
+
+    private final S3Uploader s3Uploader;
+    private final S3UploadProperties s3UploadProperties;
+
+    @Override
+    public Upload begin(String key, String contentType) {
+        String filePath = s3UploadProperties.getUploadDir() + key;
+        String uploadId = s3Uploader.initiateMultipartUpload(filePath, contentType);
+        List<PartETag> partETags = new ArrayList<>();
+
+        return new Upload() {
+            @Override
+            public void writePart(int partNumber, byte[] data, int length) {
+                partETags.add(s3Uploader.uploadPart(filePath, uploadId, partNumber, data, length));
+            }
+
+            @Override
+            public String complete() {
+                return s3Uploader.completeMultipartUpload(filePath, uploadId, partETags);
+            }
+
+            @Override
+            public void abort() {
+                s3Uploader.abortMultipartUpload(filePath, uploadId);
+            }
+        };
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.kotsuexample.service;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 @RequiredArgsConstructor
 @Service
@@ -30,4 +37,33 @@ public class S3Uploader {
 
         return amazonS3.getUrl(bucket, filePath).toString();
     }
+
+    // 멀티파트 업로드 - 크기를 모르는 스트림을 파트 단위로 나눠 올릴 때 사용
+    // (마지막 파트를 제외한 각 파트는 S3 제약상 5MB 이상이어야 함)
+    public String initiateMultipartUpload(String filePath, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        return amazonS3.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, filePath, metadata))
+                .getUploadId();
+    }
+
+    public PartETag uploadPart(String filePath, String uploadId, int partNumber, byte[] data, int length) {
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucket)
+                .withKey(filePath)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withInputStream(new ByteArrayInputStream(data, 0, length))
+                .withPartSize(length);
+        return amazonS3.uploadPart(request).getPartETag();
+    }
+
+    public String completeMultipartUpload(String filePath, String uploadId, List<PartETag> partETags) {
+        amazonS3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, filePath, uploadId, partETags));
+        return amazonS3.getUrl(bucket, filePath).toString();
+    }
+
+    public void abortMultipartUpload(String filePath, String uploadId) {
+        amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, filePath, uploadId));
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.kotsuexample.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 이 노드에서 유저의 첫 SSE 탭이 열리거나 마지막 탭이 닫혔을 때 발행
+@Getter
+@RequiredArgsConstructor
+public class SseConnectionChangedEvent {
+
+    private final Integer userId;
+}
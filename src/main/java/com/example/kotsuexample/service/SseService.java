@@ -1,25 +1,63 @@
 package com.example.kotsuexample.service;
 
+import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.dto.SseEnvelope;
 import com.example.kotsuexample.entity.enums.NotificationType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+// 유저별로 여러 탭(emitter)을 유지하고, 다른 노드에 열린 탭에는 유저 채널("sse:{userId}")로 전달
+// 유저 채널은 그 유저의 탭이 열려 있는 노드만 구독 (SseUserSubscriber) → 접속하지 않은 노드는 메시지를 받지 않음
+// 구독 노드가 없으면 Redis 가 그냥 버리므로 다른 노드에 탭이 있는지 따로 확인하지 않고 항상 발행
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class SseService {
 
-    private final Map<Integer, SseEmitter> emitters = new ConcurrentHashMap<>();
+    // 자기가 발행한 메시지를 구독으로 다시 받아 두 번 보내지 않도록 구분
+    public static final String NODE_ID = UUID.randomUUID().toString();
+
+    private final RedisPublisher redisPublisher;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Integer, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public static String channel(Integer userId) {
+        return "sse:" + userId;
+    }
 
     public SseEmitter subscribe(Integer userId) {
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        emitters.put(userId, emitter);
+        AtomicBoolean first = new AtomicBoolean(false);
+        emitters.compute(userId, (k, set) -> {
+            Set<SseEmitter> tabs = set != null ? set : ConcurrentHashMap.newKeySet();
+            first.set(tabs.isEmpty());
+            tabs.add(emitter);
+            return tabs;
+        });
 
-        emitter.onCompletion(() -> emitters.remove(userId));
-        emitter.onTimeout(() -> emitters.remove(userId));
-        emitter.onError((e) -> emitters.remove(userId));
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError((e) -> remove(userId, emitter));
+
+        // 이 노드에 유저의 첫 탭 → 유저 채널 구독
+        if (first.get()) {
+            eventPublisher.publishEvent(new SseConnectionChangedEvent(userId));
+        }
 
         // ✅ 연결 즉시 더미 데이터라도 전송 (크롬 브라우저에서 필수!)
         try {
@@ -33,16 +71,46 @@ public class SseService {
         return emitter;
     }
 
+    // 이 노드의 탭에 바로 보내고, 다른 노드의 탭을 위해 유저 채널로 한 번 발행 (자기 발행분은 SseUserSubscriber 가 거름)
     public void send(Integer receiverId, NotificationType type, Object data) {
-        SseEmitter emitter = emitters.get(receiverId);
-        if (emitter != null) {
+        deliverLocal(receiverId, type, data);
+        try {
+            SseEnvelope envelope = new SseEnvelope(NODE_ID, type, data);
+            redisPublisher.publish(channel(receiverId), objectMapper.writeValueAsBytes(envelope));
+        } catch (JsonProcessingException e) {
+            log.error("SSE 알림 직렬화 실패 receiverId={}: {}", receiverId, e.getMessage());
+        } catch (Exception e) {
+            log.error("SSE 알림 발행 실패 receiverId={}: {}", receiverId, e.getMessage());
+        }
+    }
+
+    public void deliverLocal(Integer receiverId, NotificationType type, Object data) {
+        for (SseEmitter emitter : emitters.getOrDefault(receiverId, Collections.emptySet())) {
             try {
                 emitter.send(SseEmitter.event()
                         .name(type.name().toLowerCase()) // ex: "friend", "study", "system", "chat"
                         .data(data));
             } catch (IOException e) {
-                emitters.remove(receiverId);
+                remove(receiverId, emitter);
             }
         }
     }
+
+    public boolean isConnected(Integer userId) {
+        return emitters.containsKey(userId);
+    }
+
+    private void remove(Integer userId, SseEmitter emitter) {
+        AtomicBoolean last = new AtomicBoolean(false);
+        emitters.computeIfPresent(userId, (k, tabs) -> {
+            boolean removed = tabs.remove(emitter);
+            last.set(removed && tabs.isEmpty());
+            return tabs.isEmpty() ? null : tabs;
+        });
+
+        // 마지막 탭이 닫힘 → 이 노드는 유저 채널 구독 해지
+        if (last.get()) {
+            eventPublisher.publishEvent(new SseConnectionChangedEvent(userId));
+        }
+    }
 }
@@ -35,6 +35,7 @@ public class StudyRequestService {
     private final ChatRoomMemberRepository chatRoomMemberRepository;
     private final ChatRoomRepository chatRoomRepository;
     private final NotificationService notificationService;
+    private final ChatRoomMetadataCache chatRoomMetadataCache;
 
     // 1. 신청
     @Transactional
@@ -178,6 +179,7 @@ public class StudyRequestService {
                             .joinedAt(LocalDateTime.now())
                             .build();
                     chatRoomMemberRepository.save(chatMember);
+                    chatRoomMetadataCache.invalidate(groupRoom.getId());
                 }
             }
         }
@@ -30,6 +30,7 @@ public class StudyRoomService {
     private final ChatRoomMemberRepository chatRoomMemberRepository;
     private final ChatRoomRepository chatRoomRepository;
     private final S3Uploader s3Uploader;
+    private final ChatRoomMetadataCache chatRoomMetadataCache;
     private final S3UploadProperties s3UploadProperties;
     private final static String DEFAULT_STUDY_ROOM_IMAGE = "https://kotsubucket.s3.ap-northeast-2.amazonaws.com/user-uploads-prod/default-room.png";
 
@@ -114,6 +115,13 @@ public class StudyRoomService {
                 .collect(Collectors.toList());
     }
 
+    // 스터디룸 멤버만 볼 수 있는 정보(화상방 참가자 등) 조회 전 확인
+    public void checkMember(Integer studyRoomId, Integer userId) {
+        if (!studyRoomMemberRepository.existsByStudyRoom_IdAndUser_Id(studyRoomId, userId)) {
+            throw new NoAuthorizationException("스터디룸 멤버가 아닙니다.");
+        }
+    }
+
     // 3. 상세 조회
     public StudyRoomDetailDto getStudyRoom(Integer userId, Integer id) {
         StudyRoom room = studyRoomRepository.findById(id)
@@ -211,6 +219,7 @@ public class StudyRoomService {
             // 만약 ChatMessage 등도 있으면 repository.deleteByChatRoomId()도 실행
             // chatMessageRepository.deleteByChatRoomId(chatRoom.getId());
             chatRoomRepository.delete(chatRoom);
+            chatRoomMetadataCache.invalidate(chatRoom.getId());
         });
 
         // 3. 스터디룸 멤버 삭제 (cascade면 자동)
@@ -263,6 +272,9 @@ public class StudyRoomService {
         Optional<ChatRoom> groupChatRoomOpt = chatRoomRepository
                 .findByTypeAndStudyRoomId(ChatRoomType.GROUP, studyRoomId);
 
-        groupChatRoomOpt.ifPresent(chatRoom -> chatRoomMemberRepository.deleteByChatRoomIdAndUserId(chatRoom.getId(), userId));
+        groupChatRoomOpt.ifPresent(chatRoom -> {
+            chatRoomMemberRepository.deleteByChatRoomIdAndUserId(chatRoom.getId(), userId);
+            chatRoomMetadataCache.invalidate(chatRoom.getId());
+        });
     }
 }
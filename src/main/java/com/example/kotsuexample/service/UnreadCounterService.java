@@ -0,0 +1,199 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.entity.ChatRoomMember;
+import com.example.kotsuexample.repository.ChatMessageRepository;
+import com.example.kotsuexample.repository.ChatRoomMemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// 유저별 채팅방 미확인 메시지 수를 Redis hash 로 관리 (chat:unread:{userId} → roomId: count)
+// 메시지 저장 때 증가, 읽음 처리 때 읽은 시각 이후 메시지 수로 맞추고, 주기적으로 MySQL 기준으로 다시 맞춤
+// DB 에서 계산한 값을 쓸 때는 hash 를 WATCH 해서, 계산하는 사이 들어온 증가분을 덮어쓰지 않음 (바뀌었으면 다시 계산)
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UnreadCounterService {
+
+    private static final String KEY_PREFIX = "chat:unread:";
+    // 재계산 대상 유저 목록
+    private static final String TRACKED_USERS_KEY = "chat:unread:users";
+    // DB 기준으로 채워진 hash 인지 표시 (증가만 된 hash 는 일부 방이 빠져 있을 수 있음)
+    private static final String INIT_FIELD = "_init";
+    private static final Duration TTL = Duration.ofDays(7);
+    // 계속 경합하면 이번 계산은 포기하고 다음 읽음/재계산에 맡김
+    private static final int MAX_WATCH_ATTEMPTS = 3;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ChatRoomMetadataCache chatRoomMetadataCache;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRoomMemberRepository chatRoomMemberRepository;
+    private final ChatMessageWriteBuffer chatMessageWriteBuffer;
+    private final ReadReceiptBuffer readReceiptBuffer;
+
+    @Value("${chat.unread.reconcile-batch:200}")
+    private int reconcileBatch;
+
+    // 보낸 사람을 제외한 방 멤버들의 카운터 증가 (파이프라인 한 번)
+    public void onMessage(Integer roomId, Integer senderId) {
+        Set<Integer> memberIds = chatRoomMetadataCache.get(roomId)
+                .map(ChatRoomMetadataCache.ChatRoomMetadata::getMemberIds)
+                .orElse(Set.of());
+        if (memberIds.isEmpty()) return;
+
+        String field = String.valueOf(roomId);
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (Integer memberId : memberIds) {
+                        if (memberId.equals(senderId)) continue;
+                        operations.opsForHash().increment(key(memberId), field, 1);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // 카운터는 재계산으로 보정되므로 메시지 전송은 막지 않음
+            log.warn("미확인 카운터 증가 실패 roomId={}: {}", roomId, e.getMessage());
+        }
+    }
+
+    // 읽은 시각 이후 남의 메시지 수로 맞춤 (예전 시각까지만 읽은 경우 0 이 되지 않도록)
+    public void markRead(Integer roomId, Integer userId, LocalDateTime lastReadAt) {
+        try {
+            String field = String.valueOf(roomId);
+            writeWatched(key(userId), false, () -> {
+                chatMessageWriteBuffer.flushRoom(roomId);
+                int unread = chatMessageRepository.countByChatRoomIdAndSentAtAfterAndSenderIdNot(roomId, lastReadAt, userId);
+                return Map.of(field, String.valueOf(unread));
+            });
+        } catch (Exception e) {
+            log.warn("미확인 카운터 갱신 실패 roomId={}, userId={}: {}", roomId, userId, e.getMessage());
+        }
+    }
+
+    public int get(Integer roomId, Integer userId) {
+        ensureInitialized(userId);
+        Object value = redisTemplate.opsForHash().get(key(userId), String.valueOf(roomId));
+        return value != null ? Math.max(0, Integer.parseInt((String) value)) : 0;
+    }
+
+    // roomId -> 미확인 수 (없는 방은 0)
+    public Map<Integer, Integer> getAll(Integer userId) {
+        ensureInitialized(userId);
+        Map<Integer, Integer> result = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(key(userId)).entrySet()) {
+            String field = (String) entry.getKey();
+            if (INIT_FIELD.equals(field)) continue;
+            result.put(Integer.valueOf(field), Math.max(0, Integer.parseInt((String) entry.getValue())));
+        }
+        return result;
+    }
+
+    // 증가/초기화 누락이나 경합으로 생긴 오차를 MySQL 기준으로 보정 (일부 유저씩 돌아가며)
+    @Scheduled(fixedDelayString = "${chat.unread.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            List<String> userIds = redisTemplate.opsForSet().randomMembers(TRACKED_USERS_KEY, reconcileBatch);
+            if (userIds == null) return;
+            for (String userId : userIds.stream().distinct().toList()) {
+                if (Boolean.TRUE.equals(redisTemplate.hasKey(key(Integer.valueOf(userId))))) {
+                    rebuild(Integer.valueOf(userId));
+                } else {
+                    // 오래 안 쓰여서 만료된 유저는 대상에서 제외
+                    redisTemplate.opsForSet().remove(TRACKED_USERS_KEY, userId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("미확인 카운터 재계산 실패: {}", e.getMessage());
+        }
+    }
+
+    private void ensureInitialized(Integer userId) {
+        String key = key(userId);
+        if (Boolean.TRUE.equals(redisTemplate.opsForHash().hasKey(key, INIT_FIELD))) {
+            redisTemplate.expire(key, TTL);
+            return;
+        }
+        rebuild(userId);
+    }
+
+    // 유저가 속한 모든 방의 미확인 수를 DB 에서 다시 계산해서 덮어씀
+    private void rebuild(Integer userId) {
+        // 나간 방이 남지 않도록 통째로 교체
+        writeWatched(key(userId), true, () -> {
+            List<Integer> roomIds = chatRoomMemberRepository.findByUserId(userId).stream()
+                    .map(ChatRoomMember::getChatRoomId)
+                    .toList();
+            chatMessageWriteBuffer.flushRooms(roomIds);
+            readReceiptBuffer.flushBeforeRead();
+
+            Map<String, String> fields = new HashMap<>();
+            for (Integer roomId : roomIds) {
+                fields.put(String.valueOf(roomId), "0");
+            }
+            for (ChatMessageRepository.RoomUnreadCount count : chatMessageRepository.countUnreadByRoomForUser(userId)) {
+                fields.put(String.valueOf(count.getChatRoomId()), String.valueOf(count.getUnreadCount()));
+            }
+            fields.put(INIT_FIELD, "1");
+            return fields;
+        });
+        redisTemplate.opsForSet().add(TRACKED_USERS_KEY, String.valueOf(userId));
+    }
+
+    // hash 를 WATCH 한 뒤 DB 에서 값을 계산하고 MULTI/EXEC 로 씀
+    // 계산하는 사이 HINCRBY(onMessage) 등으로 hash 가 바뀌면 EXEC 가 취소되므로 처음부터 다시 계산
+    // replace 면 hash 를 통째로 교체 (다른 클라이언트가 지워진 빈 hash 를 보지 않도록 같은 트랜잭션에서)
+    private void writeWatched(String key, boolean replace, Supplier<Map<String, String>> compute) {
+        for (int attempt = 0; attempt < MAX_WATCH_ATTEMPTS; attempt++) {
+            List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                    operations.watch(key);
+                    Map<String, String> fields;
+                    try {
+                        fields = compute.get();
+                    } catch (RuntimeException e) {
+                        operations.unwatch();
+                        throw e;
+                    }
+                    operations.multi();
+                    if (replace) {
+                        operations.delete(key);
+                    }
+                    operations.opsForHash().putAll(key, fields);
+                    if (replace) {
+                        operations.expire(key, TTL);
+                    }
+                    return operations.exec();
+                }
+            });
+            // WATCH 한 키가 바뀌어 취소되면 결과가 비어 있음
+            if (results != null && !results.isEmpty()) {
+                return;
+            }
+        }
+        log.warn("미확인 카운터 갱신 경합으로 포기 key={} (다음 재계산에서 보정)", key);
+    }
+
+    private static String key(Integer userId) {
+        return KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.example.kotsuexample.dto.UserResponse;
+import com.example.kotsuexample.entity.User;
+import com.example.kotsuexample.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// 메시지/알림/친구 목록에 붙는 간단한 유저 정보(UserResponse) 로컬 캐시
+// 없는 것만 IN 쿼리 한 번으로 채우고, 프로필이 바뀌면 Redis 채널로 모든 노드에 무효화를 알림
+@Service
+@RequiredArgsConstructor
+public class UserProfileCache {
+
+    public static final String INVALIDATION_CHANNEL = "cache:user";
+
+    private final UserRepository userRepository;
+    private final RedisPublisher redisPublisher;
+
+    @Value("${user.profile-cache.max-size:50000}")
+    private int maxSize;
+
+    private InvalidatingLruCache<UserResponse> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new InvalidatingLruCache<>(INVALIDATION_CHANNEL, redisPublisher, 1024, maxSize);
+    }
+
+    public Optional<UserResponse> get(Integer userId) {
+        return cache.get(userId, id -> userRepository.findById(id).map(User::toUserResponse));
+    }
+
+    // id -> UserResponse (존재하지 않는 유저는 결과에 없음)
+    public Map<Integer, UserResponse> getAll(Collection<Integer> userIds) {
+        Map<Integer, UserResponse> result = new HashMap<>();
+        List<Integer> misses = new ArrayList<>();
+        for (Integer userId : userIds) {
+            if (userId == null || result.containsKey(userId)) continue;
+            UserResponse cached = cache.getIfPresent(userId);
+            if (cached != null) {
+                result.put(userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            long stamp = cache.stamp();
+            for (User user : userRepository.findAllById(misses)) {
+                UserResponse loaded = user.toUserResponse();
+                cache.put(user.getId(), loaded, stamp);
+                result.put(user.getId(), loaded);
+            }
+        }
+        return result;
+    }
+
+    // 커밋 이후 모든 노드(자기 자신 포함)에 무효화 전파
+    public void invalidate(Integer userId) {
+        cache.invalidate(userId);
+    }
+
+    // Redis 무효화 메시지 수신 시 호출
+    public void evictLocal(Integer userId) {
+        cache.evictLocal(userId);
+    }
+}
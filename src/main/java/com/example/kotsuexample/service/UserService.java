@@ -15,6 +15,8 @@ import org.springframework.http.ResponseCookie;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -26,6 +28,7 @@ public class UserService {
     private final RedisUtil redisUtil;
     private final S3Uploader s3Uploader;
     private final S3UploadProperties s3UploadProperties;
+    private final UserProfileCache userProfileCache;
 
     public Boolean isEmailDuplicated(String email) {
         return userRepository.existsByEmail(email);
@@ -146,6 +149,7 @@ public class UserService {
 
         foundedUser.updateNickname(inputtedNickname);
         userRepository.save(foundedUser);
+        userProfileCache.invalidate(userId);
     }
 
     public void updatePassword(Integer userId, String inputtedPassword) {
@@ -165,6 +169,7 @@ public class UserService {
 
         foundedUser.updateProfileMessage(inputtedProfileMessage);
         userRepository.save(foundedUser);
+        userProfileCache.invalidate(userId);
     }
 
     public void updateQuestionAndAnswer(Integer userId, String inputtedQuestion, String inputtedAnswer) {
@@ -176,10 +181,13 @@ public class UserService {
     }
 
     public UserResponse getSimpleUserInfoById(Integer friendId) {
-        User user = userRepository.findById(friendId)
+        return userProfileCache.get(friendId)
                 .orElseThrow(() -> new UserNotFoundByIdException("아이디 값에 따른 유저가 조회되지 않습니다."));
+    }
 
-        return user.toUserResponse();
+    // 여러 유저를 한 번에 조회 (캐시에 없는 것만 IN 쿼리 한 번) - id -> UserResponse
+    public Map<Integer, UserResponse> getSimpleUserInfos(Collection<Integer> userIds) {
+        return userProfileCache.getAll(userIds);
     }
 
     public void validExistUser(Integer userId) {
@@ -205,6 +213,7 @@ public class UserService {
 
         user.updateProfileImage(imageUrl); // DB에는 URL만 저장
         userRepository.save(user);
+        userProfileCache.invalidate(userId);
 
         return imageUrl;
     }
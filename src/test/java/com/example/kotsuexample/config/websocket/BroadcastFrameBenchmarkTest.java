@@ -0,0 +1,194 @@
+package com.example.kotsuexample.config.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 전달된 메시지 1건당 할당량: 세션마다 String/TextMessage 를 만들던 방식(before)과
+// ChatSessionManager.broadcast 로 BroadcastFrame 하나를 공유하는 지금 방식(after) 비교
+// ./gradlew benchmark 로 실행
+@Tag("benchmark")
+class BroadcastFrameBenchmarkTest {
+
+    private static final String ROOM_ID = "42";
+    private static final int SESSIONS_PER_ROOM = 200;
+    private static final int MESSAGES = 20_000;
+    private static final int WARMUP = 5_000;
+
+    private static final byte[] BODY = ("{\"id\":123456,\"chatRoomId\":42,\"senderId\":7,\"senderNickname\":\"코츠\","
+            + "\"messageType\":\"TEXT\",\"message\":\"안녕하세요 오늘 스터디는 8시에 시작합니다\","
+            + "\"sentAt\":\"2025-06-01T20:00:00\",\"unreadCount\":12}").getBytes(StandardCharsets.UTF_8);
+
+    private final ChatWireCodec codec = new ChatWireCodec(new ObjectMapper());
+    private final ChatSessionManager sessionManager = new ChatSessionManager(
+            passThroughFactory(), mock(ApplicationEventPublisher.class));
+    private final List<SinkSession> sessions = new ArrayList<>();
+
+    @Test
+    void allocationPerDeliveredMessage() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int userId = 1; userId <= SESSIONS_PER_ROOM; userId++) {
+            SinkSession session = new SinkSession(userId);
+            sessionManager.addSession(SessionChannel.CHAT, ROOM_ID, session);
+            sessions.add(session);
+        }
+
+        runPerSession(WARMUP);
+        runShared(WARMUP);
+
+        long threadId = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(threadId);
+        runPerSession(MESSAGES);
+        long before = threads.getThreadAllocatedBytes(threadId) - start;
+
+        start = threads.getThreadAllocatedBytes(threadId);
+        runShared(MESSAGES);
+        long after = threads.getThreadAllocatedBytes(threadId) - start;
+
+        double deliveries = (double) MESSAGES * SESSIONS_PER_ROOM;
+        System.out.printf("broadcast allocation per delivered message (%d sessions): before=%.1f bytes, after=%.1f bytes%n",
+                SESSIONS_PER_ROOM, before / deliveries, after / deliveries);
+    }
+
+    // 이전 방식: 받은 바이트를 String 으로 풀고 세션마다 new TextMessage
+    private void runPerSession(int messages) {
+        for (int m = 0; m < messages; m++) {
+            String payload = new String(BODY, StandardCharsets.UTF_8);
+            for (SinkSession session : sessions) {
+                session.sendMessage(new TextMessage(payload));
+            }
+        }
+    }
+
+    private void runShared(int messages) {
+        for (int m = 0; m < messages; m++) {
+            sessionManager.broadcast(SessionChannel.CHAT, ROOM_ID, new BroadcastFrame(BODY, codec));
+        }
+    }
+
+    private static OutboundSessionFactory passThroughFactory() {
+        OutboundSessionFactory factory = mock(OutboundSessionFactory.class);
+        when(factory.decorate(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return factory;
+    }
+
+    // mock 은 호출마다 기록을 남겨 할당량이 섞이므로, 마지막 프레임만 들고 있는 세션
+    private static final class SinkSession implements WebSocketSession {
+        private final String id;
+        private final Map<String, Object> attributes = new HashMap<>();
+        private WebSocketMessage<?> last;
+
+        private SinkSession(Integer userId) {
+            this.id = String.valueOf(userId);
+            attributes.put(ChatSessionManager.ROOM_ID_ATTR, ROOM_ID);
+            attributes.put(ChatSessionManager.USER_ID_ATTR, userId);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            last = message;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return HttpHeaders.EMPTY;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.kotsuexample.config.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 브로드캐스트 한 건의 프레임을 같은 포맷 세션들이 공유하는지 확인
+class ChatSessionManagerBroadcastTest {
+
+    private static final String ROOM_ID = "42";
+    private static final byte[] BODY = ("{\"id\":1,\"chatRoomId\":42,\"senderId\":7,"
+            + "\"messageType\":\"TEXT\",\"message\":\"안녕하세요\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final ChatWireCodec codec = new ChatWireCodec(new ObjectMapper());
+    private final ChatSessionManager sessionManager = new ChatSessionManager(
+            passThroughFactory(), mock(ApplicationEventPublisher.class));
+
+    @Test
+    void jsonSessionsShareOneFrameInstance() throws Exception {
+        List<WebSocketSession> sessions = new ArrayList<>();
+        for (int userId = 1; userId <= 3; userId++) {
+            WebSocketSession session = session(userId, null);
+            sessionManager.addSession(SessionChannel.CHAT, ROOM_ID, session);
+            sessions.add(session);
+        }
+
+        sessionManager.broadcast(SessionChannel.CHAT, ROOM_ID, new BroadcastFrame(BODY, codec));
+
+        List<WebSocketMessage<?>> sent = new ArrayList<>();
+        for (WebSocketSession session : sessions) {
+            sent.add(sentTo(session));
+        }
+        assertThat(sent.get(0)).isInstanceOf(TextMessage.class);
+        assertThat(sent).allSatisfy(message -> assertThat(message).isSameAs(sent.get(0)));
+    }
+
+    @Test
+    void cborSessionsShareEncodedBytes() throws Exception {
+        WebSocketSession json = session(1, null);
+        WebSocketSession cbor1 = session(2, ChatWireCodec.CBOR_SUBPROTOCOL);
+        WebSocketSession cbor2 = session(3, ChatWireCodec.CBOR_SUBPROTOCOL);
+        sessionManager.addSession(SessionChannel.CHAT, ROOM_ID, json);
+        sessionManager.addSession(SessionChannel.CHAT, ROOM_ID, cbor1);
+        sessionManager.addSession(SessionChannel.CHAT, ROOM_ID, cbor2);
+
+        sessionManager.broadcast(SessionChannel.CHAT, ROOM_ID, new BroadcastFrame(BODY, codec));
+
+        assertThat(sentTo(json)).isInstanceOf(TextMessage.class);
+        BinaryMessage first = (BinaryMessage) sentTo(cbor1);
+        BinaryMessage second = (BinaryMessage) sentTo(cbor2);
+        // ByteBuffer 는 세션마다 새로 감싸지만 인코딩된 바이트 배열은 하나
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getPayload().array()).isSameAs(second.getPayload().array());
+    }
+
+    @Test
+    void closedSessionIsSkipped() throws Exception {
+        WebSocketSession open = session(1, null);
+        WebSocketSession closed = session(2, null);
+        when(closed.isOpen()).thenReturn(false);
+        sessionManager.addSession(SessionChannel.CHAT, ROOM_ID, open);
+        sessionManager.addSession(SessionChannel.CHAT, ROOM_ID, closed);
+
+        sessionManager.broadcast(SessionChannel.CHAT, ROOM_ID, new BroadcastFrame(BODY, codec));
+
+        sentTo(open);
+        verify(closed, never()).sendMessage(any());
+    }
+
+    @Test
+    void excludedSenderSessionIsSkipped() throws Exception {
+        WebSocketSession sender = session(1, null);
+        WebSocketSession peer = session(2, null);
+        when(sender.getId()).thenReturn("s1");
+        when(peer.getId()).thenReturn("s2");
+        sessionManager.addSession(SessionChannel.SIGNAL, ROOM_ID, sender);
+        sessionManager.addSession(SessionChannel.SIGNAL, ROOM_ID, peer);
+
+        sessionManager.broadcast(SessionChannel.SIGNAL, ROOM_ID, new BroadcastFrame(BODY, codec), "s1");
+
+        sentTo(peer);
+        verify(sender, never()).sendMessage(any());
+    }
+
+    private static WebSocketMessage<?> sentTo(WebSocketSession session) throws Exception {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass((Class) WebSocketMessage.class);
+        verify(session).sendMessage(captor.capture());
+        return captor.getValue();
+    }
+
+    private static WebSocketSession session(Integer userId, String protocol) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        HashMap<String, Object> attributes = new HashMap<>();
+        attributes.put(ChatSessionManager.ROOM_ID_ATTR, ROOM_ID);
+        attributes.put(ChatSessionManager.USER_ID_ATTR, userId);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAcceptedProtocol()).thenReturn(protocol);
+        return session;
+    }
+
+    // 전송 큐 없이 원본 세션으로 바로 보냄
+    private static OutboundSessionFactory passThroughFactory() {
+        OutboundSessionFactory factory = mock(OutboundSessionFactory.class);
+        when(factory.decorate(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return factory;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.kotsuexample.config.websocket;
+
+import com.example.kotsuexample.config.redis.RedisPublisher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+
+// 4인 메시 통화 연결을 흉내 내서 CANDIDATE 묶음 전/후 Redis 발행 수 비교
+// 참가자마다 다른 3명에게 OFFER 1개 + 짧은 간격의 trickle CANDIDATE 를 보냄
+class SignalBatcherLoadTest {
+
+    private static final int CALLS = 10;
+    private static final int PARTICIPANTS = 4;
+    private static final int CANDIDATES_PER_PEER = 12;
+    private static final long CANDIDATE_GAP_MS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void batchingReducesRedisPublishesPerCallSetup() throws Exception {
+        Result unbatched = simulate(0);
+        Result batched = simulate(40);
+
+        // 모든 후보가 빠짐없이 전달되고, OFFER 는 묶이지 않음
+        assertThat(batched.candidates).isEqualTo(unbatched.candidates);
+        assertThat(batched.offers).isEqualTo(unbatched.offers);
+        assertThat(batched.publishes * 3).isLessThan(unbatched.publishes);
+    }
+
+    @Test
+    void offerIsPublishedImmediatelyAfterPendingCandidates() throws Exception {
+        RedisPublisher publisher = mock(RedisPublisher.class);
+        SignalBatcher batcher = batcher(publisher, 10_000);
+
+        batcher.candidate("s1", "signal:1:2", signal("CANDIDATE", 2, 0));
+        batcher.candidate("s1", "signal:1:2", signal("CANDIDATE", 2, 1));
+        assertThat(mockingDetails(publisher).getInvocations()).isEmpty();
+
+        batcher.immediate("s1", "signal:1:2", signal("OFFER", 2, 0));
+
+        List<JsonNode> published = publishedNodes(publisher);
+        assertThat(published).hasSize(2);
+        assertThat(published.get(0).get("type").asText()).isEqualTo("CANDIDATE_BATCH");
+        assertThat(published.get(0).get("candidates")).hasSize(2);
+        assertThat(published.get(1).get("type").asText()).isEqualTo("OFFER");
+        batcher.shutdown();
+    }
+
+    @Test
+    void disabledWindowPublishesEachCandidateUnchanged() throws Exception {
+        RedisPublisher publisher = mock(RedisPublisher.class);
+        SignalBatcher batcher = batcher(publisher, 0);
+
+        batcher.candidate("s1", "signal:1:2", signal("CANDIDATE", 2, 0));
+        batcher.candidate("s1", "signal:1:2", signal("CANDIDATE", 2, 1));
+
+        // 기본값(0)에서는 기존 클라이언트가 모르는 CANDIDATE_BATCH 를 만들지 않음
+        List<JsonNode> published = publishedNodes(publisher);
+        assertThat(published).hasSize(2);
+        assertThat(published).allSatisfy(node -> assertThat(node.get("type").asText()).isEqualTo("CANDIDATE"));
+        batcher.shutdown();
+    }
+
+    private Result simulate(long windowMs) throws Exception {
+        RedisPublisher publisher = mock(RedisPublisher.class);
+        SignalBatcher batcher = batcher(publisher, windowMs);
+
+        // 참가자 한 명 = 쓰레드 하나 (실제로도 세션별 메시지는 순서대로 들어옴)
+        ExecutorService senders = Executors.newFixedThreadPool(CALLS * PARTICIPANTS);
+        for (int call = 0; call < CALLS; call++) {
+            for (int p = 0; p < PARTICIPANTS; p++) {
+                String sessionId = "call" + call + "-user" + p;
+                int room = call;
+                int me = p;
+                senders.execute(() -> {
+                    for (int peer = 0; peer < PARTICIPANTS; peer++) {
+                        if (peer == me) continue;
+                        batcher.immediate(sessionId, "signal:" + room + ":" + peer, signal("OFFER", peer, 0));
+                    }
+                    for (int i = 0; i < CANDIDATES_PER_PEER; i++) {
+                        for (int peer = 0; peer < PARTICIPANTS; peer++) {
+                            if (peer == me) continue;
+                            batcher.candidate(sessionId, "signal:" + room + ":" + peer, signal("CANDIDATE", peer, i));
+                        }
+                        sleep(CANDIDATE_GAP_MS);
+                    }
+                    batcher.discard(sessionId);
+                });
+            }
+        }
+        senders.shutdown();
+        assertThat(senders.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        batcher.shutdown();
+
+        Result result = new Result();
+        for (JsonNode node : publishedNodes(publisher)) {
+            result.publishes++;
+            String type = node.get("type").asText();
+            if (type.equals("CANDIDATE_BATCH")) {
+                result.candidates += node.get("candidates").size();
+            } else if (type.equals("CANDIDATE")) {
+                result.candidates++;
+            } else {
+                result.offers++;
+            }
+        }
+        return result;
+    }
+
+    private SignalBatcher batcher(RedisPublisher publisher, long windowMs) {
+        SignalBatcher batcher = new SignalBatcher(publisher, new ChatWireCodec(objectMapper));
+        ReflectionTestUtils.setField(batcher, "batchWindowMs", windowMs);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 32);
+        batcher.init();
+        return batcher;
+    }
+
+    private List<JsonNode> publishedNodes(RedisPublisher publisher) throws Exception {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (Invocation invocation : mockingDetails(publisher).getInvocations()) {
+            // 받는 노드가 보낸 세션을 뺄 수 있도록 모든 발행에 세션 id 가 붙음
+            SignalFrame frame = SignalFrame.decode(invocation.getArgument(1));
+            assertThat(frame.senderSessionId()).isNotNull();
+            nodes.add(objectMapper.readTree(frame.payload()));
+        }
+        return nodes;
+    }
+
+    private static byte[] signal(String type, int to, int index) {
+        String json = "{\"type\":\"" + type + "\",\"to\":" + to + ",\"candidate\":\"candidate:" + index
+                + " 1 udp 2122260223 192.168.0." + index + " 54321 typ host\",\"sdpMid\":\"0\"}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Result {
+        private int publishes;
+        private int candidates;
+        private int offers;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.config.s3.AttachmentProperties;
+import com.example.kotsuexample.dto.AttachmentChunkDTO;
+import com.example.kotsuexample.dto.GroupChatMessageDTO;
+import com.example.kotsuexample.entity.enums.MessageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// S3 대신 로컬 저장소로 청크 → 파트 → 완료 흐름 확인
+class AttachmentUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @TempDir
+    Path baseDir;
+
+    private AttachmentUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        AttachmentProperties properties = new AttachmentProperties();
+        properties.setPartSize(4096);
+        properties.setMaxFileSize(64 * 1024);
+        properties.setMaxPendingUploadsPerUser(2);
+        service = new AttachmentUploadService(new LocalAttachmentStorage(baseDir), properties);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void chunksAreReassembledAndPublishedAsImageMessage() throws IOException {
+        byte[] file = new byte[10_500];
+        new Random(42).nextBytes(file);
+
+        Optional<CompletableFuture<GroupChatMessageDTO>> result = Optional.empty();
+        int chunks = (file.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        for (int seq = 0; seq < chunks; seq++) {
+            byte[] data = Arrays.copyOfRange(file, seq * CHUNK_SIZE, Math.min(file.length, (seq + 1) * CHUNK_SIZE));
+            result = service.accept(42, 7, chunk("u-1", seq, seq == chunks - 1, 7, data));
+            if (seq < chunks - 1) {
+                assertThat(result).isEmpty();
+            }
+        }
+
+        assertThat(result).isPresent();
+        GroupChatMessageDTO message = result.get().join();
+        assertThat(message.getMessageType()).isEqualTo(MessageType.IMAGE);
+        assertThat(message.getChatRoomId()).isEqualTo(42);
+        assertThat(message.getSenderId()).isEqualTo(7);
+        assertThat(Files.readAllBytes(Path.of(URI.create(message.getMessage())))).isEqualTo(file);
+        assertThat(service.pendingCount()).isZero();
+    }
+
+    @Test
+    void outOfOrderChunkAbortsUpload() throws IOException {
+        service.accept(42, 7, chunk("u-2", 0, false, 7, new byte[CHUNK_SIZE]));
+
+        assertThatThrownBy(() -> service.accept(42, 7, chunk("u-2", 2, false, 7, new byte[CHUNK_SIZE])))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(service.pendingCount()).isZero();
+        // 중단은 업로드 쓰레드에서 이어서 처리됨 (shutdown 이 남은 작업을 기다림)
+        service.shutdown();
+        try (Stream<Path> files = Files.walk(baseDir)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void chunkFromAnotherUserDoesNotCancelUpload() {
+        service.accept(42, 7, chunk("u-3", 0, false, 7, new byte[CHUNK_SIZE]));
+
+        // 프레임의 senderId 를 업로드한 사람으로 꾸며도 세션의 userId 로 판단
+        assertThatThrownBy(() -> service.accept(42, 8, chunk("u-3", 1, true, 7, new byte[CHUNK_SIZE])))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(service.accept(42, 7, chunk("u-3", 1, true, 7, new byte[CHUNK_SIZE]))).isPresent();
+    }
+
+    @Test
+    void senderIsTakenFromSessionNotFromFrame() {
+        Optional<CompletableFuture<GroupChatMessageDTO>> result =
+                service.accept(42, 7, chunk("u-4", 0, true, 99, new byte[CHUNK_SIZE]));
+
+        assertThat(result).isPresent();
+        assertThat(result.get().join().getSenderId()).isEqualTo(7);
+    }
+
+    @Test
+    void uploadIntoAnotherRoomIsRejected() {
+        // 세션은 41 번 방인데 프레임은 42 번 방
+        assertThatThrownBy(() -> service.accept(41, 7, chunk("u-5", 0, false, 7, new byte[CHUNK_SIZE])))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(service.pendingCount()).isZero();
+    }
+
+    @Test
+    void pendingUploadsPerUserAreCapped() {
+        service.accept(42, 7, chunk("u-6", 0, false, 7, new byte[CHUNK_SIZE]));
+        service.accept(42, 7, chunk("u-7", 0, false, 7, new byte[CHUNK_SIZE]));
+
+        assertThatThrownBy(() -> service.accept(42, 7, chunk("u-8", 0, false, 7, new byte[CHUNK_SIZE])))
+                .isInstanceOf(IllegalStateException.class);
+        // 다른 사용자는 영향 없음
+        assertThat(service.accept(42, 8, chunk("u-9", 0, false, 8, new byte[CHUNK_SIZE]))).isEmpty();
+        assertThat(service.pendingCount()).isEqualTo(3);
+    }
+
+    private static AttachmentChunkDTO chunk(String uploadId, int seq, boolean last, int senderId, byte[] data) {
+        return AttachmentChunkDTO.builder()
+                .messageType(MessageType.ATTACHMENT)
+                .uploadId(uploadId)
+                .seq(seq)
+                .last(last)
+                .chatRoomId(42)
+                .senderId(senderId)
+                .attachmentType(MessageType.IMAGE)
+                .fileName("photo.png")
+                .contentType("image/png")
+                .data(data)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.dto.ChatMessageDTO;
+import com.example.kotsuexample.entity.ChatMessage;
+import com.example.kotsuexample.entity.enums.MessageType;
+import com.example.kotsuexample.exception.NoAuthorizationException;
+import com.example.kotsuexample.exception.OperationNotAllowedException;
+import com.example.kotsuexample.repository.ChatMessageRepository;
+import com.example.kotsuexample.repository.ChatRoomMemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatSearchServiceTest {
+
+    private static final Integer USER_ID = 7;
+    private static final LocalDateTime SENT_AT = LocalDateTime.of(2025, 6, 1, 9, 0);
+
+    @TempDir
+    Path indexDir;
+
+    private final ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+    private final ChatRoomMemberRepository chatRoomMemberRepository = mock(ChatRoomMemberRepository.class);
+    private final List<ChatMessage> stored = new ArrayList<>();
+
+    private ChatSearchService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new ChatSearchService(chatMessageRepository, chatRoomMemberRepository);
+        ReflectionTestUtils.setField(service, "indexDir", indexDir.toString());
+        ReflectionTestUtils.setField(service, "maxRooms", 1);
+        ReflectionTestUtils.setField(service, "settleMs", 0L);
+        ReflectionTestUtils.setField(service, "catchUpBatch", 2);
+        ReflectionTestUtils.setField(service, "catchUpMaxPages", 10);
+        service.init();
+
+        when(chatRoomMemberRepository.existsByChatRoomIdAndUserId(anyInt(), any())).thenReturn(true);
+        when(chatMessageRepository.findByChatRoomIdAndIdGreaterThanOrderByIdAsc(anyInt(), anyInt(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Integer roomId = invocation.getArgument(0);
+                    Integer afterId = invocation.getArgument(1);
+                    Pageable page = invocation.getArgument(2);
+                    return stored.stream()
+                            .filter(m -> m.getChatRoomId().equals(roomId) && m.getId() > afterId)
+                            .limit(page.getPageSize())
+                            .toList();
+                });
+        when(chatMessageRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            return stored.stream().filter(m -> ids.contains(m.getId())).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void returnsMessagesContainingQueryNewestFirst() {
+        store(1, 1, "일본어 문법 공부");
+        store(2, 1, "오늘 스터디 몇시");
+        store(3, 1, "본어 일본");           // bigram 은 모두 있지만 이어져 있지 않음
+        store(4, 1, "일본어 단어 시험");
+        store(5, 1, "사진", MessageType.IMAGE);
+
+        List<ChatMessageDTO> result = service.search(1, USER_ID, "일본어", null, 10);
+
+        assertThat(result).extracting(ChatMessageDTO::getId).containsExactly(4, 1);
+    }
+
+    @Test
+    void pagesWithBeforeCursor() {
+        for (int id = 1; id <= 5; id++) {
+            store(id, 1, "스터디 공지 " + id);
+        }
+
+        assertThat(service.search(1, USER_ID, "공지", null, 2))
+                .extracting(ChatMessageDTO::getId).containsExactly(5, 4);
+        assertThat(service.search(1, USER_ID, "공지", 4, 2))
+                .extracting(ChatMessageDTO::getId).containsExactly(3, 2);
+    }
+
+    @Test
+    void evictedRoomIsSnapshottedAndReloaded() {
+        store(1, 1, "일본어 문법");
+        store(2, 2, "스터디 공지");
+
+        service.search(1, USER_ID, "일본어", null, 10);
+        // max-rooms=1 → 방 2 를 올리면서 방 1 은 디스크로 내려감
+        service.search(2, USER_ID, "공지", null, 10);
+
+        assertThat(Files.exists(indexDir.resolve("room-1.idx"))).isTrue();
+        assertThat(service.search(1, USER_ID, "문법", null, 10))
+                .extracting(ChatMessageDTO::getId).containsExactly(1);
+    }
+
+    @Test
+    void longCatchUpReturnsIndexedPartAndFinishesInBackground() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "catchUpMaxPages", 1);
+        for (int id = 1; id <= 6; id++) {
+            store(id, 1, "스터디 공지 " + id);
+        }
+
+        // 요청 스레드는 한 페이지(2건)만 읽고 돌아옴 - 그 사이 백그라운드가 더 읽었을 수는 있음
+        assertThat(service.search(1, USER_ID, "공지", null, 10))
+                .extracting(ChatMessageDTO::getId).contains(2, 1);
+
+        List<ChatMessageDTO> result = List.of();
+        for (int i = 0; i < 100 && result.size() < 6; i++) {
+            Thread.sleep(20);
+            result = service.search(1, USER_ID, "공지", null, 10);
+        }
+        assertThat(result).extracting(ChatMessageDTO::getId).containsExactly(6, 5, 4, 3, 2, 1);
+    }
+
+    @Test
+    void nonMemberCannotSearch() {
+        when(chatRoomMemberRepository.existsByChatRoomIdAndUserId(1, 99)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.search(1, 99, "일본어", null, 10))
+                .isInstanceOf(NoAuthorizationException.class);
+    }
+
+    @Test
+    void singleCharacterQueryIsRejected() {
+        assertThatThrownBy(() -> service.search(1, USER_ID, " 일 ", null, 10))
+                .isInstanceOf(OperationNotAllowedException.class);
+    }
+
+    private ChatMessage store(int id, int roomId, String text) {
+        return store(id, roomId, text, MessageType.TEXT);
+    }
+
+    private ChatMessage store(int id, int roomId, String text, MessageType type) {
+        ChatMessage message = ChatMessage.builder()
+                .id(id)
+                .chatRoomId(roomId)
+                .senderId(USER_ID)
+                .messageType(type)
+                .message(text)
+                .sentAt(SENT_AT.plusMinutes(id))
+                .build();
+        stored.add(message);
+        return message;
+    }
+}
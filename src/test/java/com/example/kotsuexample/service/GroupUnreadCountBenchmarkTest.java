@@ -0,0 +1,88 @@
+package com.example.kotsuexample.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 5,000 메시지 / 50 명 그룹방 내역 조회 시 미확인 인원 수 계산 비교
+// before: 메시지마다 멤버 전체를 훑음 (실제로는 메시지마다 쿼리 3번 → 15,000 쿼리)
+// after: 워터마크를 한 번 정렬하고 메시지마다 이진 탐색 (쿼리 2번)
+// ./gradlew benchmark 로 실행
+@Tag("benchmark")
+class GroupUnreadCountBenchmarkTest {
+
+    private static final int MESSAGES = 5_000;
+    private static final int MEMBERS = 50;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void sortedWatermarksMatchPerMessageScan() {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 9, 0);
+
+        List<Integer> memberIds = new ArrayList<>();
+        Map<Integer, LocalDateTime> lastReadMap = new HashMap<>();
+        for (int userId = 1; userId <= MEMBERS; userId++) {
+            memberIds.add(userId);
+            // 일부는 한 번도 읽지 않은 멤버
+            if (random.nextInt(10) < 8) {
+                lastReadMap.put(userId, start.plusSeconds(random.nextInt(MESSAGES * 10)));
+            }
+        }
+
+        int[] senderIds = new int[MESSAGES];
+        LocalDateTime[] sentAts = new LocalDateTime[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            senderIds[i] = 1 + random.nextInt(MEMBERS);
+            sentAts[i] = start.plusSeconds(i * 10L);
+        }
+
+        int[] expected = new int[MESSAGES];
+        int[] actual = new int[MESSAGES];
+
+        long before = Long.MAX_VALUE;
+        long after = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                expected[i] = perMessageScan(memberIds, lastReadMap, senderIds[i], sentAts[i]);
+            }
+            long t1 = System.nanoTime();
+            RoomReadWatermarks watermarks = new RoomReadWatermarks(memberIds, lastReadMap);
+            for (int i = 0; i < MESSAGES; i++) {
+                actual[i] = watermarks.unreadCount(senderIds[i], sentAts[i]);
+            }
+            long t2 = System.nanoTime();
+
+            before = Math.min(before, t1 - t0);
+            after = Math.min(after, t2 - t1);
+        }
+
+        System.out.printf("group history unread counts (%d messages, %d members): per-message scan=%.2f ms, sorted watermarks=%.2f ms%n",
+                MESSAGES, MEMBERS, before / 1_000_000.0, after / 1_000_000.0);
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    // 기존 ChatReadService.getUnreadMemberCountForMessage 와 같은 판정
+    private static int perMessageScan(List<Integer> memberIds, Map<Integer, LocalDateTime> lastReadMap,
+                                      Integer senderId, LocalDateTime sentAt) {
+        int unreadCount = 0;
+        for (Integer userId : memberIds) {
+            if (userId.equals(senderId)) continue;
+            LocalDateTime lastReadAt = lastReadMap.get(userId);
+            if (lastReadAt == null || lastReadAt.isBefore(sentAt)) {
+                unreadCount++;
+            }
+        }
+        return unreadCount;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.kotsuexample.service;
+
+import com.example.kotsuexample.entity.ChatReadStatus;
+import com.example.kotsuexample.entity.ChatRoomMember;
+import com.example.kotsuexample.repository.ChatMessageRepository;
+import com.example.kotsuexample.repository.ChatReadStatusRepository;
+import com.example.kotsuexample.repository.ChatRoomMemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 그룹방 미확인 인원 수 - 멤버/읽음 시각을 한 번 읽어 정렬한 워터마크로 계산
+class ReadWatermarkServiceTest {
+
+    private static final Integer ROOM_ID = 10;
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 6, 1, 9, 0);
+
+    private final ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+    private final ChatRoomMemberRepository chatRoomMemberRepository = mock(ChatRoomMemberRepository.class);
+    private final ChatReadStatusRepository chatReadStatusRepository = mock(ChatReadStatusRepository.class);
+    private final ReadReceiptBuffer readReceiptBuffer = mock(ReadReceiptBuffer.class);
+
+    private final ReadWatermarkService service = new ReadWatermarkService(
+            chatMessageRepository, chatRoomMemberRepository, chatReadStatusRepository, readReceiptBuffer);
+
+    // 멤버 1~4: 1 은 T0+10분, 2 는 T0+30분까지 읽음, 3 은 읽은 적 없음, 4 는 T0+20분까지 읽음
+    @BeforeEach
+    void setUp() {
+        when(chatRoomMemberRepository.findByChatRoomId(ROOM_ID)).thenReturn(List.of(
+                member(1), member(2), member(3), member(4)));
+        when(chatReadStatusRepository.findByChatRoomId(ROOM_ID)).thenReturn(List.of(
+                status(1, T0.plusMinutes(10)), status(2, T0.plusMinutes(30)), status(4, T0.plusMinutes(20))));
+    }
+
+    @Test
+    void snapshotCountsMembersWhoHaveNotReadExcludingSender() {
+        RoomReadWatermarks watermarks = service.snapshot(ROOM_ID);
+
+        // T0+5분 메시지: 3 만 안 읽음
+        assertThat(watermarks.unreadCount(1, T0.plusMinutes(5))).isEqualTo(1);
+        // T0+15분 메시지를 1 이 보냄: 3 만 안 읽음 (보낸 사람 본인은 제외)
+        assertThat(watermarks.unreadCount(1, T0.plusMinutes(15))).isEqualTo(1);
+        // T0+15분 메시지를 2 가 보냄: 1, 3 이 안 읽음
+        assertThat(watermarks.unreadCount(2, T0.plusMinutes(15))).isEqualTo(2);
+        // T0+40분 메시지를 3 이 보냄: 1, 2, 4 가 안 읽음
+        assertThat(watermarks.unreadCount(3, T0.plusMinutes(40))).isEqualTo(3);
+        // 정확히 읽은 시각의 메시지는 읽은 것으로 봄
+        assertThat(watermarks.unreadCount(3, T0.plusMinutes(30))).isEqualTo(2);
+        verify(readReceiptBuffer).flushBeforeRead();
+    }
+
+    @Test
+    void applyReadReturnsOnlyMessagesWhoseCountChanged() {
+        LocalDateTime from = T0.plusMinutes(10);
+        LocalDateTime to = T0.plusMinutes(25);
+        when(chatMessageRepository.findReadMarkersBetween(ROOM_ID, from, to, 100)).thenReturn(List.of(
+                marker(98, 2, T0.plusMinutes(12)),
+                marker(99, 1, T0.plusMinutes(15)),
+                marker(100, 4, T0.plusMinutes(22))));
+
+        Map<Integer, Integer> changed = service.applyRead(ROOM_ID, 1, to, 100);
+
+        // 1 이 보낸 99 는 변화 없음, 98 (2 가 보냄) 과 100 (4 가 보냄) 은 이제 3 만 안 읽음
+        assertThat(changed).containsOnlyKeys(98, 100);
+        assertThat(changed.get(98)).isEqualTo(1);
+        assertThat(changed.get(100)).isEqualTo(1);
+    }
+
+    @Test
+    void olderReadDoesNotMoveWatermarkBackwards() {
+        RoomReadWatermarks watermarks = service.getWatermarks(ROOM_ID);
+
+        // 다른 노드에서 늦게 도착한 오래된 READ
+        service.observe(ROOM_ID, 2, T0.plusMinutes(1));
+        Map<Integer, Integer> changed = service.applyRead(ROOM_ID, 2, T0.plusMinutes(5), 100);
+
+        assertThat(changed).isEmpty();
+        verify(chatMessageRepository, never()).findReadMarkersBetween(eq(ROOM_ID), any(), any(), anyInt());
+        // 2 는 여전히 T0+30분까지 읽은 상태 → T0+25분 메시지는 3, 4 만 안 읽음
+        assertThat(watermarks.unreadCount(1, T0.plusMinutes(25))).isEqualTo(2);
+    }
+
+    @Test
+    void nonMemberReadIsIgnored() {
+        assertThat(service.applyRead(ROOM_ID, 99, T0.plusMinutes(50), 100)).isEmpty();
+        assertThat(service.getWatermarks(ROOM_ID).memberCount()).isEqualTo(4);
+    }
+
+    private static ChatRoomMember member(Integer userId) {
+        return ChatRoomMember.builder().chatRoomId(ROOM_ID).userId(userId).joinedAt(T0).build();
+    }
+
+    private static ChatReadStatus status(Integer userId, LocalDateTime lastReadAt) {
+        ChatReadStatus status = ChatReadStatus.builder().chatRoomId(ROOM_ID).userId(userId).build();
+        status.updateLastReadAt(lastReadAt);
+        return status;
+    }
+
+    private static ChatMessageRepository.ReadMarker marker(Integer id, Integer senderId, LocalDateTime sentAt) {
+        return new ChatMessageRepository.ReadMarker() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getSenderId() {
+                return senderId;
+            }
+
+            @Override
+            public LocalDateTime getSentAt() {
+                return sentAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.kotsuexample.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 메시지 10만 건 방에서 bigram 색인 검색과 본문 전체 스캔(LIKE '%q%' 대용)의 지연 시간 비교
+// DB 왕복 없이 후보 추출 + 본문 확인까지만 측정
+// ./gradlew benchmark 로 실행 (색인 동작 자체는 RoomSearchIndexTest 에서 확인)
+@Tag("benchmark")
+class RoomSearchIndexBenchmarkTest {
+
+    private static final int MESSAGES = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int QUERIES = 300;
+
+    private static final String[] WORDS = {
+            "안녕하세요", "오늘", "스터디", "일본어", "단어", "문법", "시험", "준비", "같이", "공부해요",
+            "내일", "몇시", "시작", "하나요", "발음", "연습", "숙제", "확인", "부탁", "드립니다",
+            "こんにちは", "勉強", "日本語", "漢字", "宿題", "明日", "ありがとう", "よろしく", "会話", "練習",
+            "JLPT", "N2", "N3", "청해", "독해", "노트", "정리", "공유", "했어요", "ㅋㅋㅋ"
+    };
+
+    private static RoomSearchIndex index;
+    private static String[] texts;
+    private static String[] normalizedTexts;
+    private static long buildNanos;
+
+    @BeforeAll
+    static void buildIndex() {
+        Random random = new Random(7);
+        texts = new String[MESSAGES + 1];
+        normalizedTexts = new String[MESSAGES + 1];
+        for (int id = 1; id <= MESSAGES; id++) {
+            int words = 3 + random.nextInt(10);
+            StringBuilder sb = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            texts[id] = sb.toString();
+            normalizedTexts[id] = RoomSearchIndex.normalize(texts[id]);
+        }
+
+        index = new RoomSearchIndex();
+        long start = System.nanoTime();
+        for (int id = 1; id <= MESSAGES; id++) {
+            index.add(id, texts[id]);
+        }
+        buildNanos = System.nanoTime() - start;
+    }
+
+    @Test
+    void indexedSearchLatency() throws IOException {
+        String[] queries = {"일본어 문법", "勉強", "시험준비", "JLPT N2", "宿題 明日", "발음연습", "ありがとう"};
+
+        // 결과 동일성 먼저 확인 (첫 페이지)
+        for (String query : queries) {
+            assertThat(indexed(query)).as(query).containsExactlyElementsOf(scan(query));
+        }
+
+        long[] indexedNanos = new long[QUERIES];
+        long[] scanNanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = queries[i % queries.length];
+            long start = System.nanoTime();
+            indexed(query);
+            indexedNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            scan(query);
+            scanNanos[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(indexedNanos);
+        Arrays.sort(scanNanos);
+        System.out.printf("messages=%d bigrams=%d build=%dms%n", MESSAGES, index.bigramCount(), buildNanos / 1_000_000);
+        System.out.printf("indexed p50=%dus p99=%dus / scan p50=%dus p99=%dus%n",
+                indexedNanos[QUERIES / 2] / 1000, indexedNanos[QUERIES * 99 / 100] / 1000,
+                scanNanos[QUERIES / 2] / 1000, scanNanos[QUERIES * 99 / 100] / 1000);
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(snapshot));
+        System.out.printf("snapshot=%dKB%n", snapshot.size() / 1024);
+    }
+
+    // ChatSearchService 와 같은 방식: 후보를 받아 본문으로 확인, 모자라면 다음 후보
+    private static List<Integer> indexed(String query) {
+        String normalized = RoomSearchIndex.normalize(query);
+        List<Integer> result = new ArrayList<>(PAGE_SIZE);
+        Integer cursor = null;
+        while (result.size() < PAGE_SIZE) {
+            int[] candidates = index.candidates(normalized, cursor, PAGE_SIZE * 2);
+            for (int id : candidates) {
+                if (normalizedTexts[id].contains(normalized)) {
+                    result.add(id);
+                    if (result.size() == PAGE_SIZE) break;
+                }
+            }
+            if (candidates.length < PAGE_SIZE * 2) break;
+            cursor = candidates[candidates.length - 1];
+        }
+        return result;
+    }
+
+    // 최신순으로 모든 본문을 훑음
+    private static List<Integer> scan(String query) {
+        String normalized = RoomSearchIndex.normalize(query);
+        List<Integer> result = new ArrayList<>(PAGE_SIZE);
+        for (int id = MESSAGES; id >= 1 && result.size() < PAGE_SIZE; id--) {
+            if (RoomSearchIndex.normalize(texts[id]).contains(normalized)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+}
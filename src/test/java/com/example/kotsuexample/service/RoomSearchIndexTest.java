@@ -0,0 +1,61 @@
+package com.example.kotsuexample.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomSearchIndexTest {
+
+    @Test
+    void candidatesAreNewestFirstAndContainEveryQueryBigram() {
+        RoomSearchIndex index = new RoomSearchIndex();
+        index.add(1, "일본어 문법 공부");
+        index.add(2, "오늘 스터디 몇시");
+        index.add(3, "일본어 단어 시험");
+        index.add(4, "勉強 しましょう");
+
+        assertThat(index.candidates(RoomSearchIndex.normalize("일본어"), null, 10)).containsExactly(3, 1);
+        assertThat(index.candidates(RoomSearchIndex.normalize("일본어"), 3, 10)).containsExactly(1);
+        assertThat(index.candidates(RoomSearchIndex.normalize("勉強"), null, 10)).containsExactly(4);
+        assertThat(index.candidates(RoomSearchIndex.normalize("문법시험"), null, 10)).isEmpty();
+    }
+
+    @Test
+    void snapshotRoundTripKeepsResults() throws IOException {
+        RoomSearchIndex index = new RoomSearchIndex();
+        for (int id = 1; id <= 200; id++) {
+            index.add(id, id % 2 == 0 ? "일본어 문법 " + id : "勉強 " + id);
+        }
+        index.setSettledId(200);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        RoomSearchIndex restored = RoomSearchIndex.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(restored.getSettledId()).isEqualTo(200);
+        assertThat(restored.bigramCount()).isEqualTo(index.bigramCount());
+        assertThat(restored.candidates("일본어문법", null, 100))
+                .containsExactly(index.candidates("일본어문법", null, 100));
+        assertThat(restored.candidates("勉強", 100, 100))
+                .containsExactly(index.candidates("勉強", 100, 100));
+    }
+
+    @Test
+    void lateLowerIdIsInsertedInOrderAndDuplicatesAreIgnored() {
+        RoomSearchIndex small = new RoomSearchIndex();
+        small.add(10, "일본어 공부");
+        small.add(30, "일본어 시험");
+        small.add(20, "일본어 단어");
+        small.add(30, "일본어 시험");
+
+        assertThat(small.candidates("일본어", null, 10)).containsExactly(30, 20, 10);
+        assertThat(small.candidates("일본어", 30, 10)).containsExactly(20, 10);
+    }
+}